@@ -5,6 +5,22 @@ import model.Solucao;
 
 public class AgenteBusca extends AgenteBuscaAbstrato {
 
+	/*
+	 * Estado da busca BIDIRECIONAL:
+	 * espacoReverso, fronteiraReversa ~> busca A Estrela do OBJETIVO para o INICIO;
+	 * melhorCusto ~> custo do melhor caminho já conectado pelas duas buscas;
+	 * encontroDireto, encontroReverso, sentidoEncontro ~> aresta onde esse caminho conecta as buscas;
+	 * unirPendente ~> a busca terminou pelo encontro e a solução ainda não foi montada.
+	 */
+	private EspacoBusca		espacoReverso;
+	private FronteiraHeap	fronteiraReversa;
+	private boolean			bidirecional;
+	private int				melhorCusto;
+	private long			encontroDireto;
+	private long			encontroReverso;
+	private int				sentidoEncontro;
+	private boolean			unirPendente;
+
 	public AgenteBusca(int[] estadoInicial, int[] estadoObjetivo,
 			Labirinto labirinto) {
 		super(estadoInicial, estadoObjetivo, labirinto);
@@ -18,59 +34,319 @@ public class AgenteBusca extends AgenteBuscaAbstrato {
 
 	@Override
 	public Solucao Busca() {
-		while(!fronteira.isEmpty()) {
-			this.atual = proximaVisita();
-
-			if(!foiVisitada(this.atual)) {
-				if(this.isObjetivo(atual)){
-					return atual;
-				} else {
-					this.visitarEstado();
+		switch(this.executar(Long.MAX_VALUE, 0, false)) {
+		case ENCONTRADA:
+			return this.getAtual();
+		case ESGOTADA:
+			System.out.print("Ops, nenhuma solução encontrada");
+			return null;
+		default:
+			return null;
+		}
+	}
+
+	@Override
+	public void resetarBusca() {
+		super.resetarBusca();
+
+		this.bidirecional = this.tipoBusca == Busca.BIDIRECIONAL;
+		this.unirPendente = false;
+		if(!this.bidirecional)
+			return;
+
+		if(this.espacoReverso == null || !this.espacoReverso.serve(this.getAmbiente())) {
+			this.espacoReverso = EspacoBusca.criar(this.getAmbiente(), true);
+			this.fronteiraReversa = this.espacoReverso.criarHeap();
+		}
+		this.espacoReverso.reiniciar(this.fronteiraReversa);
+
+		long objetivo = this.indice(this.estadoObjetivo[0], this.estadoObjetivo[1]);
+		this.espacoReverso.descobrir(objetivo, 0, -1);
+		this.fronteiraReversa.adicionar(objetivo, this.funcaoFReversa(objetivo), 0);
+
+		this.melhorCusto = Integer.MAX_VALUE;
+		this.encontroDireto = -1;
+		this.encontroReverso = -1;
+		this.sentidoEncontro = -1;
+	}
+
+	@Override
+	protected Estado executar(long maxExpansoes, long prazo, boolean comPrazo) {
+		if(this.cancelada)
+			return this.estado = Estado.CANCELADA;
+		if(this.bidirecional)
+			return this.executarBidirecional(maxExpansoes, prazo, comPrazo);
+
+		int tamanho = this.getAmbiente().getTamanho();
+		boolean headless = this.ouvinte == null;
+		long limite = this.expansoes + Math.min(maxExpansoes, Long.MAX_VALUE - this.expansoes);
+		while(this.expansoes < limite) {
+			if(fronteira.isVazia()) {
+				if(!headless)
+					this.ouvinte.conclusao(this);
+				return this.estado = Estado.ESGOTADA;
+			}
+
+			long celula = proximaVisita();
+			if(this.espaco.foiVisitada(celula))
+				continue;
+
+			this.celulaAtual = celula;
+			if(this.isObjetivo(celula)) {
+				if(!headless)
+					this.ouvinte.conclusao(this);
+				return this.estado = Estado.ENCONTRADA;
+			}
+
+			this.visitarEstado();
+			int y = (int) (celula / tamanho);
+			int x = (int) (celula - (long) y * tamanho);
+			int custo = this.espaco.getCusto(celula);
+			for(int i = 0; i < 4; i++) {
+				if(this.getAmbiente().movimentoValido(x, y, i))
+					this.descobrir(celula + Labirinto.DX[i] + Labirinto.DY[i] * tamanho,
+							custo + this.getAmbiente().getPeso(x + Labirinto.DX[i], y + Labirinto.DY[i]), i);
+			}
+			this.expansoes++;
+
+			if(!headless)
+				this.notificarExpansao();
+			//Cancelamento e prazo são verificados a cada 64 expansões
+			if((this.expansoes & 63) == 0) {
+				if(this.cancelada)
+					return this.estado = Estado.CANCELADA;
+				if(comPrazo && System.nanoTime() - prazo >= 0)
+					break;
+			}
+		}
+		return this.estado = Estado.EXECUTANDO;
+	}
+
+	/*
+	 * Busca Bidirecional
+	 * Duas buscas A Estrela, do INICIO para o OBJETIVO e do OBJETIVO para o INICIO, expandem
+	 * alternadamente a fronteira menor. Sempre que uma delas alcança uma célula já descoberta
+	 * pela outra, o caminho que passa por essa aresta é candidato a MELHORCUSTO.
+	 *
+	 * Como a heurística é consistente, a menor chave de cada fronteira é um limite
+	 * inferior para qualquer caminho ainda não conectado; a busca termina quando MELHORCUSTO não
+	 * é maior que a maior dessas chaves, ou quando uma das fronteiras esvazia.
+	 *
+	 * Com pesos, a busca reversa guarda em cada célula o custo do caminho dela até o OBJETIVO,
+	 * sem contar o peso da própria célula.
+	 *
+	 * Uma célula retirada que a outra busca já visitou é marcada sem ser expandida: o
+	 * melhor caminho por ela já foi registrado no encontro das duas buscas nessa célula, e
+	 * seguir adiante só percorreria a região da outra busca.
+	 *
+	 * Sem índice de posições (EspacoBuscaMapeado) as fronteiras podem repetir células, e as
+	 * já visitadas são ignoradas ao serem retiradas.
+	 */
+	private Estado executarBidirecional(long maxExpansoes, long prazo, boolean comPrazo) {
+		int tamanho = this.getAmbiente().getTamanho();
+		boolean headless = this.ouvinte == null;
+		FronteiraHeap direta = (FronteiraHeap) this.fronteira;
+		FronteiraHeap reversa = this.fronteiraReversa;
+		long limite = this.expansoes + Math.min(maxExpansoes, Long.MAX_VALUE - this.expansoes);
+		while(this.expansoes < limite) {
+			if(direta.isVazia() || reversa.isVazia()
+					|| this.melhorCusto <= Math.max(direta.getChaveMinima(), reversa.getChaveMinima())) {
+				if(this.melhorCusto == Integer.MAX_VALUE) {
+					if(!headless)
+						this.ouvinte.conclusao(this);
+					return this.estado = Estado.ESGOTADA;
+				}
+				//A solução é montada apenas quando pedida, por getAtual
+				this.celulaAtual = this.indice(this.estadoObjetivo[0], this.estadoObjetivo[1]);
+				this.atual = null;
+				this.unirPendente = true;
+				this.estado = Estado.ENCONTRADA;
+				if(!headless)
+					this.ouvinte.conclusao(this);
+				return this.estado;
+			}
+
+			if(direta.tamanho() <= reversa.tamanho()) {
+				long celula = direta.remover();
+				if(this.espaco.foiVisitada(celula))
+					continue;
+				this.celulaAtual = celula;
+				if(this.isObjetivo(celula)) {
+					if(!headless)
+						this.ouvinte.conclusao(this);
+					return this.estado = Estado.ENCONTRADA;
+				}
+				this.visitarEstado();
+				if(!this.espacoReverso.foiVisitada(celula)) {
+					int y = (int) (celula / tamanho);
+					int x = (int) (celula - (long) y * tamanho);
+					int custo = this.espaco.getCusto(celula);
+					for(int i = 0; i < 4; i++) {
+						if(!this.getAmbiente().movimentoValido(x, y, i))
+							continue;
+						long vizinha = celula + Labirinto.DX[i] + Labirinto.DY[i] * tamanho;
+						int custoVizinha = custo + this.getAmbiente().getPeso(x + Labirinto.DX[i], y + Labirinto.DY[i]);
+						this.descobrir(vizinha, custoVizinha, i);
+						if(this.espacoReverso.foiDescoberta(vizinha))
+							this.encontrar(celula, vizinha, i, custoVizinha + this.espacoReverso.getCusto(vizinha));
+					}
+				}
+			} else {
+				long celula = reversa.remover();
+				if(this.espacoReverso.foiVisitada(celula))
+					continue;
+				this.espacoReverso.visitar(celula);
+				if(!this.espaco.foiVisitada(celula)) {
+					int y = (int) (celula / tamanho);
+					int x = (int) (celula - (long) y * tamanho);
+					//No sentido do caminho a aresta termina na célula expandida e custa o seu peso
+					int custo = this.espacoReverso.getCusto(celula) + this.getAmbiente().getPeso(x, y);
 					for(int i = 0; i < 4; i++) {
-						if(this.getAmbiente().movimentoValido(atual.getX(), atual.getY(), i))
-							this.fronteira.add(this.getAtual().moverPara(i));
+						if(!this.getAmbiente().movimentoValido(x, y, i))
+							continue;
+						long vizinha = celula + Labirinto.DX[i] + Labirinto.DY[i] * tamanho;
+						if(this.espacoReverso.descobrir(vizinha, custo, i))
+							reversa.adicionar(vizinha, this.funcaoFReversa(vizinha), custo);
+						if(this.espaco.foiDescoberta(vizinha))
+							this.encontrar(vizinha, celula, Labirinto.OPOSTO[i], custo + this.espaco.getCusto(vizinha));
 					}
 				}
-				try { Thread.sleep(this.sleepTime);} catch (InterruptedException e) {}
+			}
+			this.expansoes++;
+
+			if(!headless)
+				this.notificarExpansao();
+			if((this.expansoes & 63) == 0) {
+				if(this.cancelada)
+					return this.estado = Estado.CANCELADA;
+				if(comPrazo && System.nanoTime() - prazo >= 0)
+					break;
 			}
 		}
-		System.out.print("Ops, nenhuma solução encontrada");
-		return null;
+		return this.estado = Estado.EXECUTANDO;
 	}
 
-	@Override
-	protected Solucao proximaVisita() {
-		int melhor = 0;
-		for(int i = 1; i < this.fronteira.size(); i++) {
-			switch(this.getTipoBusca()) {
-			case AESTRELA:
-				if(this.funcaoF(fronteira.get(melhor)) > this.funcaoF(fronteira.get(i)))
-					melhor = i;
-				break;
-			case PROFUNDIDADE:
-				if(this.funcaoCusto(fronteira.get(melhor)) < this.funcaoCusto(fronteira.get(i)))
-					melhor = i;
+	/*
+	 * Registra a aresta DIRETA -> REVERSA, no SENTIDO indicado, caso o caminho que passa por ela seja o melhor
+	 */
+	private void encontrar(long direta, long reversa, int sentido, int custo) {
+		if(custo < this.melhorCusto) {
+			this.melhorCusto = custo;
+			this.encontroDireto = direta;
+			this.encontroReverso = reversa;
+			this.sentidoEncontro = sentido;
+		}
+	}
+
+	/*
+	 * Monta a solução final: o caminho da busca direta até o encontro, seguido do caminho
+	 * da busca reversa percorrido ao contrário até o OBJETIVO
+	 */
+	private void unirCaminhos() {
+		Solucao solucao = this.espaco.construirSolucao(this.encontroDireto);
+		long celula = this.encontroReverso;
+		int sentido = this.sentidoEncontro;
+		while(true) {
+			solucao = solucao.moverPara(sentido, this.getAmbiente());
+			int acao = this.espacoReverso.getAcao(celula);
+			if(acao < 0)
 				break;
-			}
+			sentido = Labirinto.OPOSTO[acao];
+			celula = this.espacoReverso.getPai(celula);
+		}
+		this.celulaAtual = celula;
+		this.atual = solucao;
+	}
+
+	/*
+	 * Chave da busca reversa: custo até o OBJETIVO mais a heurística até o INICIO
+	 */
+	private double funcaoFReversa(long celula) {
+		int tamanho = this.getAmbiente().getTamanho();
+		return this.espacoReverso.getCusto(celula) + this.heuristica.estimar((int) (celula % tamanho),
+				(int) (celula / tamanho), this.estadoInicial[0], this.estadoInicial[1]);
+	}
+
+	@Override
+	public Solucao getAtual() {
+		if(this.unirPendente) {
+			this.unirPendente = false;
+			this.unirCaminhos();
+		}
+		return super.getAtual();
+	}
+
+	@Override
+	public int getCustoSolucao() {
+		//Encontro ainda não unido: o custo é o do melhor caminho conectado
+		if(this.unirPendente)
+			return this.melhorCusto;
+		return super.getCustoSolucao();
+	}
+
+	@Override
+	public boolean isVisitada(int x, int y) {
+		return super.isVisitada(x, y)
+				|| (this.bidirecional && this.espacoReverso.foiVisitada(this.indice(x, y)));
+	}
+
+	@Override
+	protected long proximaVisita() {
+		return this.fronteira.remover();
+	}
+
+	@Override
+	protected Fronteira criarFronteira() {
+		switch(this.getTipoBusca()) {
+		case AESTRELA:
+			//A chave F = G + H é truncada pelos baldes; veja FronteiraBaldes
+			if(this.getAmbiente().isPonderado())
+				return new FronteiraBaldes(Labirinto.PESO_MAXIMO + 2);
+			return this.espaco.criarHeap();
+		case GULOSA:
+		case BIDIRECIONAL:
+			return this.espaco.criarHeap();
+		case PROFUNDIDADE:
+			return new FronteiraDeque(true);
+		case AMPLITUDE:
+		default:
+			//Com pesos a Amplitude vira busca de custo uniforme (Dijkstra)
+			if(this.getAmbiente().isPonderado())
+				return new FronteiraBaldes(Labirinto.PESO_MAXIMO + 1);
+			return new FronteiraDeque(false);
+		}
+	}
+
+	@Override
+	protected double funcaoPrioridade(long celula) {
+		switch(this.getTipoBusca()) {
+		case AESTRELA:
+		case BIDIRECIONAL:
+			return this.funcaoF(celula);
+		case GULOSA:
+			int tamanho = this.getAmbiente().getTamanho();
+			return this.funcaoHeuristica((int) (celula % tamanho), (int) (celula / tamanho));
+		case AMPLITUDE:
+			return this.funcaoCusto(celula);
+		default:
+			return 0;
 		}
-		return fronteira.remove(melhor);
 	}
 
 	@Override
-	protected double funcaoF(Solucao solucao) {
-		return funcaoCusto(solucao) + funcaoHeuristica(solucao);
+	protected double funcaoF(long celula) {
+		int tamanho = this.getAmbiente().getTamanho();
+		return funcaoCusto(celula) + funcaoHeuristica((int) (celula % tamanho), (int) (celula / tamanho));
 	}
 
 	@Override
-	protected double funcaoCusto(Solucao solucao) {
-		return solucao.getCusto();
+	protected double funcaoCusto(long celula) {
+		return this.espaco.getCusto(celula);
 	}
 
 	@Override
-	protected double funcaoHeuristica(Solucao solucao) {
-		double distancia = Math.pow(solucao.getX() - this.estadoObjetivo[0], 2);
-		distancia += Math.pow(solucao.getY() - this.estadoObjetivo[1], 2);
-		return Math.sqrt(distancia);
+	protected double funcaoHeuristica(int x, int y) {
+		return this.heuristica.estimar(x, y, this.estadoObjetivo[0], this.estadoObjetivo[1]);
 	}
 
 }
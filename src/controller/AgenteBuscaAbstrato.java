@@ -1,6 +1,6 @@
 package controller;
 
-import java.util.LinkedList;
+import java.util.AbstractList;
 import java.util.List;
 
 import model.Labirinto;
@@ -14,12 +14,24 @@ public abstract class AgenteBuscaAbstrato {
 	 * para descobrir o melhor caminho entre o ESTADO_INICIAL e ESTADO_FINAL.
 	 * Para facilitar o uso da mesma como interface do presente estado da busca, a instância conta com algumas váriaveis
 	 * de execução, como:
-	 * atual ~> ponteiro para solução atual;
-	 * fronteira ~> lista de fronteira de soluções a Serem analisadas;
-	 * visitados ~> lista de CELULAS X, Y do labirinto já visitadas;
+	 * celulaAtual ~> índice da célula sendo analisada;
+	 * atual ~> solução da célula atual, montada apenas quando pedida por getAtual;
+	 * espaco ~> custos, sentidos de chegada e visitas da busca indexados pela célula, em vetores
+	 * 				primitivos ou, em labirintos maiores que o heap, em arquivo mapeado (EspacoBusca.criar);
+	 * 				próprio de cada agente para que o labirinto não seja alterado pela busca e
+	 * 				possa ser compartilhado;
+	 * fronteira ~> fronteira de células a serem analisadas, do tipo adequado ao tipo de Busca;
+	 * visitados ~> visão, como lista de CELULAS X, Y, das células visitadas;
+	 * estado ~> situação da busca após o último passo executado;
+	 * expansoes ~> número de células expandidas desde o início da busca;
+	 * cancelada ~> pedido de cancelamento, que pode vir de outra thread;
+	 * heuristica ~> estimativa do custo até o objetivo usada pelas buscas informadas;
+	 * cache ~> caminhos já calculados sobre o labirinto, consultados por iniciarBusca;
+	 * ouvinte ~> interessado no progresso da busca, notificado a cada expansão. Sem ouvinte
+	 * 				a busca executa em modo headless, sem notificações nem pausas;
 	 * sleepTime ~> tempo em milisegundos que o algoritmo dorme antes de continuar a análise.
 	 * 				Esta váriavel é util para animar o processo de busca, possibilitando a 
-	 * 				visualização do processo de busca.
+	 * 				visualização do processo de busca. Só é aplicada quando há um ouvinte.
 	 * @author André M. Ribeiro dos Santos
 	 * @author Jorge Aikes Junior
 	 */
@@ -28,13 +40,24 @@ public abstract class AgenteBuscaAbstrato {
 
 	/*
 	 * BUSCA
-	 * Define quatro tipos de Busca que podem ser executadas para Buscar a solu��o:
+	 * Define cinco tipos de Busca que podem ser executadas para Buscar a solu��o:
 	 * A Estrela,
 	 * Gulosa,
-	 * Profundidade e
-	 * Amplitude
+	 * Profundidade,
+	 * Amplitude e
+	 * Bidirecional (A Estrela a partir das duas pontas, até que as buscas se encontrem)
 	 */
-	public static enum Busca{ AESTRELA, GULOSA, PROFUNDIDADE, AMPLITUDE };
+	public static enum Busca{ AESTRELA, GULOSA, PROFUNDIDADE, AMPLITUDE, BIDIRECIONAL };
+
+	/*
+	 * ESTADO
+	 * Situação de uma busca executada em passos:
+	 * Executando ~> a busca ainda tem fronteira e pode continuar,
+	 * Encontrada ~> a busca atingiu o ESTADO OBJETIVO (getSolucao),
+	 * Esgotada ~> a fronteira esvaziou sem atingir o objetivo,
+	 * Cancelada ~> a busca foi cancelada e só continua após ser resetada.
+	 */
+	public static enum Estado{ EXECUTANDO, ENCONTRADA, ESGOTADA, CANCELADA };
 
 	/*
 	 * Váriaveis de instância
@@ -44,9 +67,19 @@ public abstract class AgenteBuscaAbstrato {
 	protected int[] 		estadoInicial;
 	protected int[] 		estadoObjetivo;
 
+	protected long 			celulaAtual;
 	protected Solucao 		atual;
-	protected List<Solucao> 	fronteira;
+	protected EspacoBusca 	espaco;
+	protected Fronteira 	fronteira;
+	protected Busca			tipoFronteira;
+	protected boolean		fronteiraPonderada;
 	protected List<int[]> 	visitados;
+	protected Estado		estado;
+	protected long			expansoes;
+	protected volatile boolean	cancelada;
+	protected Heuristica	heuristica;
+	protected CacheCaminhos	cache;
+	protected OuvinteBusca	ouvinte;
 	protected long 			sleepTime;
 	protected Busca			tipoBusca;		
 
@@ -61,8 +94,9 @@ public abstract class AgenteBuscaAbstrato {
 		this.estadoObjetivo = estadoObjetivo;
 		this.ambiente = labirinto;
 		this.tipoBusca = Busca.AESTRELA;
+		this.heuristica = new HeuristicaEuclidiana();
 
-		this.sleepTime = 200;
+		this.sleepTime = 0;
 
 		this.resetarBusca();
 	}
@@ -79,14 +113,86 @@ public abstract class AgenteBuscaAbstrato {
 	 * Reinstância as variáveis de execução para iniciar um processo de busca
 	 */
 	public void resetarBusca() {
-		this.atual = new Solucao(estadoInicial[0], estadoInicial[1]);
+		if(this.espaco == null || !this.espaco.serve(this.ambiente)) {
+			this.espaco = EspacoBusca.criar(this.ambiente, false);
+			this.visitados = new ListaVisitados(this.espaco);
+			this.fronteira = null;
+		}
 
-		this.fronteira = new LinkedList<Solucao>();
-		this.fronteira.add(atual);
+		//A fronteira é escolhida uma única vez por busca e reaproveitada enquanto o tipo não mudar
+		boolean ponderado = this.ambiente.isPonderado();
+		if(this.fronteira == null || this.tipoFronteira != this.tipoBusca || this.fronteiraPonderada != ponderado) {
+			this.fronteira = this.criarFronteira();
+			this.tipoFronteira = this.tipoBusca;
+			this.fronteiraPonderada = ponderado;
+		}
+		this.espaco.reiniciar(this.fronteira);
 
-		this.visitados = new LinkedList<int[]>();
+		this.celulaAtual = this.indice(estadoInicial[0], estadoInicial[1]);
+		this.atual = null;
+		this.descobrir(this.celulaAtual, 0, -1);
 
-		this.ambiente.limparVisitas();
+		this.estado = Estado.EXECUTANDO;
+		this.expansoes = 0;
+		this.cancelada = false;
+	}
+
+	/*
+	 * Troca INICIO e OBJETIVO e reinicia a busca, escrevendo as posições nos vetores do
+	 * próprio agente. Usado por quem resolve muitas consultas com o mesmo agente
+	 * (ResolvedorLote), que cria esses vetores e não os compartilha.
+	 */
+	void resetarBusca(int xInicio, int yInicio, int xObjetivo, int yObjetivo) {
+		this.estadoInicial[0] = xInicio;
+		this.estadoInicial[1] = yInicio;
+		this.estadoObjetivo[0] = xObjetivo;
+		this.estadoObjetivo[1] = yObjetivo;
+		this.resetarBusca();
+	}
+
+	/**
+	 * Visão somente leitura da fronteira como uma lista das soluções a serem analisadas.
+	 */
+	private class ListaFronteira extends AbstractList<Solucao> {
+		@Override
+		public Solucao get(int i) {
+			if(i < 0 || i >= this.size())
+				throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + this.size());
+			return espaco.construirSolucao(fronteira.get(i));
+		}
+
+		@Override
+		public int size() {
+			return fronteira.tamanho();
+		}
+	}
+
+	/**
+	 * Visão somente leitura das visitas do espaço de busca como uma lista de posições X, Y,
+	 * na ordem em que foram visitadas. As posições são montadas apenas quando lidas; o
+	 * EspacoBuscaMapeado só informa quantas são.
+	 */
+	private static class ListaVisitados extends AbstractList<int[]> {
+		private final EspacoBusca espaco;
+
+		ListaVisitados(EspacoBusca espaco) {
+			this.espaco = espaco;
+		}
+
+		@Override
+		public int[] get(int i) {
+			if(i < 0 || i >= this.size())
+				throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + this.size());
+			long celula = this.espaco.getVisita(i);
+			int tamanho = this.espaco.getTamanho();
+			int[] posicao = {(int) (celula % tamanho), (int) (celula / tamanho)};
+			return posicao;
+		}
+
+		@Override
+		public int size() {
+			return (int) Math.min(Integer.MAX_VALUE, this.espaco.getQuantidadeVisitas());
+		}
 	}
 
 	/*
@@ -103,6 +209,16 @@ public abstract class AgenteBuscaAbstrato {
 	 * 
 	 * Ambos os métodos retorna uma Solução aceitável (que atinge o ESTADO OBJETIVO) possível ou NULO
 	 * caso esgote a busca e não encontre outra solução.
+	 *
+	 * Para intercalar muitas buscas em poucas threads, a busca também pode ser executada em passos
+	 * limitados, que preservam a fronteira e as visitas entre as chamadas:
+	 *
+	 * passo ~> executa no máximo N expansões;
+	 * passoAte ~> executa até um prazo (System.nanoTime);
+	 * cancelar ~> interrompe a busca, inclusive uma chamada em andamento em outra thread.
+	 *
+	 * Ambos os passos retornam o ESTADO da busca. Depois de ENCONTRADA ou ESGOTADA os passos
+	 * apenas devolvem esse estado, sem expandir mais células, até a busca ser resetada.
 	 */
 
 	/**
@@ -111,8 +227,29 @@ public abstract class AgenteBuscaAbstrato {
 	 * caso esgote a busca e não encontre outra solução.
 	 */
 	public Solucao iniciarBusca(){
+		//Versão lida antes da busca: se o labirinto mudar durante ela, o resultado não vai para o cache
+		long versao = this.ambiente.getVersao();
 		this.resetarBusca();
-		return this.Busca();
+		if(this.cache == null)
+			return this.Busca();
+
+		//Com cache, a busca só é executada se o caminho ainda não foi calculado nesta versão do labirinto
+		Solucao solucao = this.cache.buscar(this.estadoInicial, this.estadoObjetivo, this.tipoBusca, this.heuristica);
+		if(solucao != null) {
+			this.celulaAtual = this.indice(this.estadoObjetivo[0], this.estadoObjetivo[1]);
+			this.atual = solucao;
+			this.estado = Estado.ENCONTRADA;
+			return solucao;
+		}
+		if(this.cache.contem(this.estadoInicial, this.estadoObjetivo, this.tipoBusca, this.heuristica)) {
+			this.estado = Estado.ESGOTADA;
+			return null;
+		}
+
+		solucao = this.Busca();
+		if(this.estado == Estado.ENCONTRADA || this.estado == Estado.ESGOTADA)
+			this.cache.guardar(versao, this.estadoInicial, this.estadoObjetivo, this.tipoBusca, this.heuristica, solucao);
+		return solucao;
 	}
 	/**
 	 * continua a execução de uma busca a partir do estado das váriaveis de instância atual.
@@ -136,33 +273,101 @@ public abstract class AgenteBuscaAbstrato {
 	 */
 	public abstract Solucao Busca();
 
+	/**
+	 * Executa no máximo MAXEXPANSOES expansões da busca atual.
+	 * @param maxExpansoes Número máximo de células a expandir neste passo.
+	 * @return EXECUTANDO se o limite foi atingido, ou o estado final da busca.
+	 */
+	public Estado passo(long maxExpansoes) {
+		if(this.isConcluida())
+			return this.estado;
+		return this.executar(maxExpansoes, 0, false);
+	}
+
+	/**
+	 * Executa a busca atual até o PRAZO, medido como em System.nanoTime().
+	 * @param prazo Instante, em nanosegundos, a partir do qual o passo deve retornar.
+	 * @return EXECUTANDO se o prazo foi atingido, ou o estado final da busca.
+	 */
+	public Estado passoAte(long prazo) {
+		if(this.isConcluida())
+			return this.estado;
+		return this.executar(Long.MAX_VALUE, prazo, true);
+	}
+
+	/**
+	 * Cancela a busca. Um passo em andamento retorna CANCELADA em seguida; a busca só
+	 * volta a executar após resetarBusca.
+	 */
+	public void cancelar() {
+		this.cancelada = true;
+	}
+
+	/**
+	 * Verifica se a busca já atingiu um estado final, ENCONTRADA ou ESGOTADA.
+	 * @return True se os passos não têm mais o que expandir.
+	 */
+	public boolean isConcluida() {
+		return this.estado == Estado.ENCONTRADA || this.estado == Estado.ESGOTADA;
+	}
+
+	/**
+	 * Executa a busca até atingir o limite de expansões, o prazo ou um estado final.
+	 * @param maxExpansoes Número máximo de células a expandir.
+	 * @param prazo Instante limite em System.nanoTime(), considerado apenas se COMPRAZO.
+	 * @param comPrazo True se o prazo deve ser respeitado.
+	 * @return Estado da busca ao fim da execução.
+	 */
+	protected abstract Estado executar(long maxExpansoes, long prazo, boolean comPrazo);
+
 	/**
 	 * proximaVisita
-	 * Este método seleciona e retira a proxima solução a ser visitada da FRONTEIRA de acordo com o
-	 * algoritmo de Busca. Ele percore a fronteira procurando o nodo que melhor atende a seleção do
-	 * tipo de Busca escolhida.
+	 * Este método seleciona e retira a proxima célula a ser visitada da FRONTEIRA de acordo com o
+	 * algoritmo de Busca. A própria FRONTEIRA, criada por criarFronteira, mantém as células na ordem
+	 * de seleção do tipo de Busca escolhida.
 	 * 
 	 * Seleções:
 	 * A ESTRELA ~> seleciona solução com menor F(), ou seja, menor soma entre Heuristica e Custo
-	 * PROFUNDIDADE ~> seleciona a solução de maior custo, pois neste caso o custo representa o número de visitas
-	 * AMPLITUDE ~> seleciona a solução com menor custo
-	 * GULOSA ~> seleciona a solução de menor Heurística
+	 * 				(heap, ou baldes de Dial quando o labirinto tem pesos)
+	 * PROFUNDIDADE ~> seleciona a solução descoberta mais recentemente (pilha)
+	 * AMPLITUDE ~> seleciona a solução descoberta há mais tempo, ou seja, a de menor custo (fila);
+	 * 				com pesos, a de menor custo acumulado (baldes de Dial)
+	 * GULOSA ~> seleciona a solução de menor Heurística (heap)
+	 *
+	 * @return Índice da célula selecionada.
+	 */
+	protected abstract long proximaVisita();
+
+	/**
+	 * Cria a fronteira adequada ao tipo de Busca atual e ao ESPACO da busca. É chamado apenas
+	 * quando a busca é resetada com um tipo de Busca diferente do anterior, quando o labirinto
+	 * passou a ter pesos ou deixou de tê-los, ou quando o espaço de busca foi recriado.
+	 * @return Fronteira vazia.
 	 */
-	protected abstract Solucao proximaVisita();
+	protected abstract Fronteira criarFronteira();
+
+	/**
+	 * Encapsula a descoberta de uma célula: caso ela ainda não tenha sido visitada e o custo seja
+	 * o melhor conhecido para ela, o custo e o sentido de chegada são guardados no ESPACO da busca
+	 * e a célula vai para a FRONTEIRA. Nenhum objeto é alocado.
+	 * @param celula Índice da célula descoberta.
+	 * @param custo Custo acumulado até a célula.
+	 * @param acao Sentido do movimento que levou a célula, -1 na origem.
+	 */
+	protected void descobrir(long celula, int custo, int acao) {
+		if(this.espaco.descobrir(celula, custo, acao))
+			this.fronteira.adicionar(celula, this.funcaoPrioridade(celula), custo);
+	}
 
 	/**
 	 * Encapsula a verificação se uma CELULA X, Y já foi visitada pelo algoritmo de busca, ou seja,
-	 * se ela está contida na lista de VISITADAS.
+	 * se ela está marcada no registro de VISITAS. A verificação é O(1).
 	 * @param solucao Solução a ser verificada
 	 * @return True se a solução já foi visitada, False contrário
 	 */
 
 	protected boolean foiVisitada(Solucao solucao) {
-		for(int i = 0; i < this.visitados.size(); i++) {
-			if(this.visitados.get(i)[0] == solucao.getX() && this.visitados.get(i)[1] == solucao.getY())
-				return true;
-		}
-		return false;
+		return this.espaco.foiVisitada(this.indice(solucao.getX(), solucao.getY()));
 	}
 
 	/**
@@ -174,6 +379,15 @@ public abstract class AgenteBuscaAbstrato {
 		return solucao.getX() == this.estadoObjetivo[0] && solucao.getY() == this.estadoObjetivo[1];
 	}
 
+	/**
+	 * Encapsula a verificação se a CELULA está no ESTADO OBJETIVO.
+	 * @param celula Índice da célula.
+	 * @return True se for a célula objetivo, False contrário.
+	 */
+	protected boolean isObjetivo(long celula){
+		return celula == this.indice(this.estadoObjetivo[0], this.estadoObjetivo[1]);
+	}
+
 	/*
 	 * Funções de Custo
 	 * Estas funções encapsulam o calculo para as funções de custo de uma dada solução.
@@ -183,27 +397,78 @@ public abstract class AgenteBuscaAbstrato {
 	 * do custo total da solução.
 	 * 
 	 * Função Custo
-	 * Resulta no custo acumulado dos passos tomados desde da origem até o estado atual da solução
+	 * Resulta no custo acumulado dos passos tomados desde da origem até o estado atual da solução,
+	 * somando o peso de cada célula de destino (Labirinto.getPeso)
 	 * 
 	 * Função Heuristíca
 	 * Estimativa do custo da posição de uma solução até o Objetivo. No caso do labirinto, uma boa heurística pode
 	 * ser a distância linear entre a posição da solução S até o OBJETIVO
+	 *
+	 * Durante a busca as funções são calculadas sobre o índice da célula, sem montar a Solucao;
+	 * as versões que recebem uma Solucao existem por conveniência.
 	 */
-	protected abstract double funcaoF(Solucao solucao);
+	protected abstract double funcaoF(long celula);
 
-	protected abstract  double funcaoCusto(Solucao solucao);
+	protected abstract  double funcaoCusto(long celula);
 
-	protected abstract  double funcaoHeuristica(Solucao solucao);
+	protected abstract  double funcaoHeuristica(int x, int y);
+
+	protected double funcaoF(Solucao solucao) {
+		return this.funcaoCusto(solucao) + this.funcaoHeuristica(solucao);
+	}
+
+	protected double funcaoCusto(Solucao solucao) {
+		return solucao.getCusto();
+	}
+
+	protected double funcaoHeuristica(Solucao solucao) {
+		return this.funcaoHeuristica(solucao.getX(), solucao.getY());
+	}
 
 	/**
-	 * Encapsula a visita de uma posição do labirinto, adicionando a posição X, Y
-	 * a lista de visitados e avisa ao ambiente que a CELULA X, Y foi visitada.
+	 * Prioridade da célula na FRONTEIRA, menor é melhor. Fronteiras não ordenadas a ignoram.
+	 * @param celula Índice da célula a ser adicionada a fronteira.
+	 * @return Chave da célula de acordo com o tipo de Busca.
+	 */
+	protected abstract double funcaoPrioridade(long celula);
+
+	/**
+	 * Notifica o ouvinte sobre a expansão da célula atual e, se configurado, pausa a busca
+	 * por SLEEPTIME milisegundos para que a animação possa ser acompanhada.
+	 */
+	protected void notificarExpansao() {
+		this.ouvinte.expansao(this);
+		if(this.sleepTime > 0) {
+			try { Thread.sleep(this.sleepTime);} catch (InterruptedException e) {}
+		}
+	}
+
+	/**
+	 * Encapsula a visita da célula atual, adicionando-a ao registro de visitas do agente.
 	 */
 
 	protected void visitarEstado(){
-		int[] posicao = {this.getAtual().getX(), this.getAtual().getY()};
-		this.visitados.add(posicao);
-		this.ambiente.getCelula(this.getAtual().getX(), this.getAtual().getY()).setVisitada(true);
+		this.espaco.visitar(this.celulaAtual);
+	}
+
+	/**
+	 * Verifica se a CELULA X, Y já foi visitada pela busca atual.
+	 * @param x Posição X da célula no labirinto
+	 * @param y Posição y da célula no labirinto
+	 * @return True se a célula foi visitada, False contrário
+	 */
+	public boolean isVisitada(int x, int y) {
+		return this.espaco.foiVisitada(this.indice(x, y));
+	}
+
+	/**
+	 * Converte a posição X, Y no índice da célula usado pelos registros da busca.
+	 * @param x Posição X da célula no labirinto
+	 * @param y Posição y da célula no labirinto
+	 * @return Índice Y * TAMANHO + X
+	 */
+	protected long indice(int x, int y) {
+		return (long) y * this.ambiente.getTamanho() + x;
 	}
 
 	/*
@@ -239,18 +504,60 @@ public abstract class AgenteBuscaAbstrato {
 		this.resetarBusca();
 	}
 
+	/**
+	 * Retorna a solução da célula atual, montando-a a partir do espaço de busca
+	 * apenas se a célula mudou desde a última chamada.
+	 * @return Solução atual.
+	 */
 	public Solucao getAtual() {
-		return atual;
+		long celula = this.celulaAtual;
+		Solucao solucao = this.atual;
+		if(solucao == null || this.indice(solucao.getX(), solucao.getY()) != celula) {
+			solucao = this.espaco.construirSolucao(celula);
+			this.atual = solucao;
+		}
+		return solucao;
 	}
 
 	public List<Solucao> getFronteira() {
-		return fronteira;
+		return new ListaFronteira();
 	}
 
 	public List<int[]> getVisitados() {
 		return visitados;
 	}
 
+	public Estado getEstado() {
+		return estado;
+	}
+
+	/**
+	 * Retorna a solução encontrada pelo último passo.
+	 * @return Solução que atinge o ESTADO OBJETIVO ou NULO caso a busca não esteja ENCONTRADA.
+	 */
+	public Solucao getSolucao() {
+		return this.estado == Estado.ENCONTRADA ? this.getAtual() : null;
+	}
+
+	/**
+	 * Retorna o custo da solução encontrada pelo último passo, lido do espaço de busca
+	 * sem montar a Solucao.
+	 * @return Custo do caminho até o ESTADO OBJETIVO ou -1 caso a busca não esteja ENCONTRADA.
+	 */
+	public int getCustoSolucao() {
+		if(this.estado != Estado.ENCONTRADA)
+			return -1;
+		//Solução já montada ou vinda do cache, caso em que o espaço de busca não foi preenchido
+		Solucao solucao = this.atual;
+		if(solucao != null && this.indice(solucao.getX(), solucao.getY()) == this.celulaAtual)
+			return solucao.getCusto();
+		return this.espaco.getCusto(this.celulaAtual);
+	}
+
+	public long getExpansoes() {
+		return expansoes;
+	}
+
 	public Busca getTipoBusca() {
 		return tipoBusca;
 	}
@@ -259,6 +566,40 @@ public abstract class AgenteBuscaAbstrato {
 		this.tipoBusca = tipoBusca;
 	}
 
+	public Heuristica getHeuristica() {
+		return heuristica;
+	}
+
+	/**
+	 * Configura a heurística das buscas informadas. Vale a partir da próxima busca iniciada.
+	 * @param heuristica Heurística consistente, por exemplo HeuristicaManhattan ou HeuristicaMarcos.
+	 */
+	public void setHeuristica(Heuristica heuristica) {
+		this.heuristica = heuristica;
+	}
+
+	public CacheCaminhos getCache() {
+		return cache;
+	}
+
+	/**
+	 * Configura o cache de caminhos consultado por iniciarBusca.
+	 * @param cache Cache do mesmo labirinto do agente, ou NULO para sempre executar a busca.
+	 */
+	public void setCache(CacheCaminhos cache) {
+		if(cache != null && cache.getLabirinto() != this.ambiente)
+			throw new IllegalArgumentException("O cache pertence a outro labirinto");
+		this.cache = cache;
+	}
+
+	public OuvinteBusca getOuvinte() {
+		return ouvinte;
+	}
+
+	public void setOuvinte(OuvinteBusca ouvinte) {
+		this.ouvinte = ouvinte;
+	}
+
 	public long getSleepTime() {
 		return sleepTime;
 	}
@@ -0,0 +1,94 @@
+package controller;
+
+import model.Labirinto;
+
+/**
+ * AgenteFluxo
+ * Agente que anda até um OBJETIVO seguindo o campo de fluxo dele, sem busca própria. O
+ * campo é pedido uma vez aos CamposFluxo e lido sem sincronização a cada passo; só é
+ * pedido de novo quando a versão das paredes do labirinto muda; pesos não alteram o
+ * campo.
+ *
+ * Cada agente deve ser usado por uma única thread; vários agentes, em threads
+ * diferentes, podem compartilhar os mesmos CamposFluxo.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class AgenteFluxo {
+
+	/*
+	 * campo ~> campo de distâncias do OBJETIVO na VERSAO do labirinto;
+	 * versao ~> versão das paredes lida antes de pedir o campo.
+	 */
+	private final CamposFluxo campos;
+	private final Labirinto labirinto;
+	private final int[] objetivo;
+	private CampoDistancias campo;
+	private long versao;
+	private int x;
+	private int y;
+
+	/**
+	 * Construtor parametrizado.
+	 * @param campos Campos de fluxo do labirinto.
+	 * @param inicio Posição X, Y inicial.
+	 * @param objetivo Posição X, Y do objetivo.
+	 */
+	public AgenteFluxo(CamposFluxo campos, int[] inicio, int[] objetivo) {
+		this.campos = campos;
+		this.labirinto = campos.getLabirinto();
+		this.objetivo = objetivo.clone();
+		this.x = inicio[0];
+		this.y = inicio[1];
+		this.atualizarCampo();
+	}
+
+	/**
+	 * Retorna o sentido do próximo passo em direção ao OBJETIVO.
+	 * @return Sentido N, S, L, O ou -1 no objetivo e em células sem caminho até ele.
+	 */
+	public int getProximoSentido() {
+		if(this.labirinto.getVersaoParedes() != this.versao)
+			this.atualizarCampo();
+		return this.campo.getSentidoParaOrigem(this.x, this.y);
+	}
+
+	/**
+	 * Dá um passo em direção ao OBJETIVO.
+	 * @return True se o agente andou, False se está no objetivo ou sem caminho até ele.
+	 */
+	public boolean mover() {
+		int sentido = this.getProximoSentido();
+		if(sentido < 0)
+			return false;
+		this.x += Labirinto.DX[sentido];
+		this.y += Labirinto.DY[sentido];
+		return true;
+	}
+
+	public boolean isNoObjetivo() {
+		return this.x == this.objetivo[0] && this.y == this.objetivo[1];
+	}
+
+	public int getX() {
+		return x;
+	}
+
+	public int getY() {
+		return y;
+	}
+
+	public int[] getObjetivo() {
+		return objetivo.clone();
+	}
+
+	/*
+	 * A versão é lida antes de pedir o campo: se as paredes mudarem no meio, o próximo
+	 * passo pede o campo de novo
+	 */
+	private void atualizarCampo() {
+		this.versao = this.labirinto.getVersaoParedes();
+		this.campo = this.campos.getCampo(this.objetivo);
+	}
+}
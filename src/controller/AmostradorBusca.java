@@ -0,0 +1,50 @@
+package controller;
+
+/**
+ * AmostradorBusca
+ * Ouvinte que repassa o progresso da busca no máximo uma vez a cada INTERVALO,
+ * descartando as expansões intermediárias. Útil para desenhar a busca na taxa
+ * de quadros da tela, independente de quantas células são expandidas. A conclusão
+ * da busca é sempre repassada.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public abstract class AmostradorBusca implements OuvinteBusca {
+
+	private final long intervalo;
+	private long ultimaAmostra;
+
+	/**
+	 * Construtor padrão.
+	 * @param intervalo Intervalo mínimo, em milisegundos, entre duas amostras.
+	 */
+	public AmostradorBusca(long intervalo) {
+		this.intervalo = intervalo * 1000000L;
+		this.ultimaAmostra = System.nanoTime() - this.intervalo;
+	}
+
+	@Override
+	public void expansao(AgenteBuscaAbstrato agente) {
+		long agora = System.nanoTime();
+		if(agora - this.ultimaAmostra >= this.intervalo) {
+			this.ultimaAmostra = agora;
+			this.amostrar(agente);
+		}
+	}
+
+	/**
+	 * O estado final da busca é sempre amostrado.
+	 */
+	@Override
+	public void conclusao(AgenteBuscaAbstrato agente) {
+		this.ultimaAmostra = System.nanoTime();
+		this.amostrar(agente);
+	}
+
+	/**
+	 * Chamado no máximo uma vez por intervalo, na thread da busca.
+	 * @param agente Agente sendo amostrado.
+	 */
+	protected abstract void amostrar(AgenteBuscaAbstrato agente);
+}
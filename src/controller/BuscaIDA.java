@@ -0,0 +1,326 @@
+package controller;
+
+import java.util.Arrays;
+
+import model.Labirinto;
+import model.Solucao;
+
+/**
+ * BuscaIDA
+ * Busca A Estrela por aprofundamento iterativo (IDA*), para labirintos grandes demais
+ * para guardar custos e visitas por célula. Cada iteração é uma busca em profundidade
+ * que descarta as células cujo F = G + H ultrapassa o LIMITE; a iteração seguinte usa
+ * como limite o menor F descartado. Com uma heurística consistente o primeiro caminho
+ * encontrado é o menor.
+ *
+ * A memória da busca é a pilha do caminho atual e um conjunto das células nela, ambos
+ * O(profundidade): uma célula que já está no caminho nunca é empilhada de novo, então a
+ * busca não anda em ciclos mesmo sem tabela. Opcionalmente há uma tabela de transposição
+ * de tamanho limitado (LIMITEMEMORIA), que guarda o menor G com que cada célula foi
+ * alcançada na iteração e evita expandir de novo a mesma célula por caminhos diferentes.
+ * Quando a tabela enche, entradas antigas são sobrescritas: a busca continua correta,
+ * apenas repete mais trabalho. As entradas são marcadas com a época (iteração) em que
+ * foram escritas, então a tabela não precisa ser limpa a cada iteração.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class BuscaIDA {
+
+	/*
+	 * BYTES_ENTRADA ~> memória de uma entrada da tabela: célula, G e época
+	 * TENTATIVAS ~> posições examinadas na tabela antes de sobrescrever uma entrada
+	 */
+	private static final int BYTES_ENTRADA = 12;
+	private static final int TENTATIVAS = 4;
+
+	private final Labirinto labirinto;
+	private Heuristica heuristica;
+	private long limiteMemoria;
+
+	/*
+	 * Pilha do caminho atual: célula, próximo sentido a tentar e sentido de chegada
+	 */
+	private int[] celulas;
+	private byte[] proximos;
+	private byte[] chegadas;
+
+	/*
+	 * Conjunto das células do caminho atual, por endereçamento aberto: célula + 1 (0 se
+	 * vazia), com o dobro da capacidade da pilha
+	 */
+	private int[] caminho;
+
+	/*
+	 * Tabela de transposição: célula, G e época de cada entrada. Uma entrada só vale na
+	 * iteração cuja EPOCA está gravada nela.
+	 */
+	private int[] chaves;
+	private int[] custos;
+	private int[] epocas;
+	private int epoca;
+
+	private long expansoes;
+	private int iteracoes;
+
+	/**
+	 * Construtor padrão, com a HeuristicaManhattan e sem tabela de transposição.
+	 * @param labirinto Labirinto a ser percorrido.
+	 */
+	public BuscaIDA(Labirinto labirinto) {
+		this.labirinto = labirinto;
+		this.heuristica = new HeuristicaManhattan();
+		this.limiteMemoria = 0;
+		this.celulas = new int[64];
+		this.proximos = new byte[64];
+		this.chegadas = new byte[64];
+		this.caminho = new int[128];
+	}
+
+	/**
+	 * Busca o menor caminho entre duas células.
+	 * @param estadoInicial Posição X, Y inicial.
+	 * @param estadoObjetivo Posição X, Y objetivo.
+	 * @return Solução que atinge o OBJETIVO ou NULO caso não exista caminho.
+	 */
+	public Solucao buscar(int[] estadoInicial, int[] estadoObjetivo) {
+		int tamanho = this.labirinto.getTamanho();
+		long maximo = (long) tamanho * tamanho - 1;
+		int inicio = estadoInicial[1] * tamanho + estadoInicial[0];
+		int objetivo = estadoObjetivo[1] * tamanho + estadoObjetivo[0];
+		this.prepararTabela();
+		Arrays.fill(this.caminho, 0);
+		this.expansoes = 0;
+		this.iteracoes = 0;
+
+		double limite = this.heuristica.estimar(estadoInicial[0], estadoInicial[1], estadoObjetivo[0], estadoObjetivo[1]);
+		//Nenhum caminho simples tem mais que N² - 1 passos
+		while(limite <= maximo) {
+			this.iteracoes++;
+			//Nova época invalida a tabela; só é preciso limpá-la quando o contador dá a volta
+			if(++this.epoca == 0) {
+				if(this.epocas != null)
+					Arrays.fill(this.epocas, 0);
+				this.epoca = 1;
+			}
+			double proximoLimite = Double.POSITIVE_INFINITY;
+
+			int profundidade = 0;
+			this.celulas[0] = inicio;
+			this.proximos[0] = 0;
+			this.chegadas[0] = -1;
+			this.entrarCaminho(inicio);
+			this.registrar(inicio, 0);
+			while(profundidade >= 0) {
+				int celula = this.celulas[profundidade];
+				if(celula == objetivo)
+					return this.construirSolucao(profundidade, tamanho);
+
+				int i = this.proximos[profundidade];
+				if(i == 0)
+					this.expansoes++;
+				if(i == 4) {
+					this.sairCaminho(celula);
+					profundidade--;
+					continue;
+				}
+				this.proximos[profundidade]++;
+
+				int chegada = this.chegadas[profundidade];
+				int x = celula % tamanho;
+				int y = celula / tamanho;
+				if((chegada >= 0 && i == Labirinto.OPOSTO[chegada]) || !this.labirinto.movimentoValido(x, y, i))
+					continue;
+
+				int g = profundidade + 1;
+				int nx = x + Labirinto.DX[i];
+				int ny = y + Labirinto.DY[i];
+				int vizinha = ny * tamanho + nx;
+				if(this.noCaminho(vizinha))
+					continue;
+				double f = g + this.heuristica.estimar(nx, ny, estadoObjetivo[0], estadoObjetivo[1]);
+				if(f > limite) {
+					if(f < proximoLimite)
+						proximoLimite = f;
+					continue;
+				}
+				if(!this.registrar(vizinha, g))
+					continue;
+
+				profundidade = g;
+				if(profundidade == this.celulas.length)
+					this.crescer();
+				this.celulas[profundidade] = vizinha;
+				this.proximos[profundidade] = 0;
+				this.chegadas[profundidade] = (byte) i;
+				this.entrarCaminho(vizinha);
+			}
+
+			if(proximoLimite == Double.POSITIVE_INFINITY)
+				break;
+			limite = proximoLimite;
+		}
+		return null;
+	}
+
+	/**
+	 * Retorna o número de células expandidas pela última busca, somando todas as iterações.
+	 * @return Número de células expandidas.
+	 */
+	public long getExpansoes() {
+		return expansoes;
+	}
+
+	/**
+	 * Retorna o número de iterações (limites de F) da última busca.
+	 * @return Número de iterações.
+	 */
+	public int getIteracoes() {
+		return iteracoes;
+	}
+
+	public Labirinto getLabirinto() {
+		return labirinto;
+	}
+
+	public Heuristica getHeuristica() {
+		return heuristica;
+	}
+
+	/**
+	 * Configura a heurística. Deve ser consistente para que o caminho encontrado seja o menor.
+	 * @param heuristica Heurística usada no cálculo de F.
+	 */
+	public void setHeuristica(Heuristica heuristica) {
+		this.heuristica = heuristica;
+	}
+
+	public long getLimiteMemoria() {
+		return limiteMemoria;
+	}
+
+	/**
+	 * Configura a memória máxima, em bytes, da tabela de transposição. A pilha do caminho,
+	 * proporcional a profundidade, não é contada.
+	 * @param limiteMemoria Bytes da tabela, ou 0 para buscar sem tabela.
+	 */
+	public void setLimiteMemoria(long limiteMemoria) {
+		this.limiteMemoria = limiteMemoria;
+	}
+
+	/*
+	 * Aloca a tabela com a maior potência de 2 de entradas que cabe no limite de memória,
+	 * sem passar do número de células
+	 */
+	private void prepararTabela() {
+		int tamanho = this.labirinto.getTamanho();
+		long entradas = Math.min(this.limiteMemoria / BYTES_ENTRADA, (long) tamanho * tamanho);
+		if(entradas < TENTATIVAS) {
+			this.chaves = null;
+			this.custos = null;
+			this.epocas = null;
+			return;
+		}
+		int capacidade = Integer.highestOneBit((int) Math.min(entradas, 1 << 30));
+		if(this.chaves == null || this.chaves.length != capacidade) {
+			this.chaves = new int[capacidade];
+			this.custos = new int[capacidade];
+			this.epocas = new int[capacidade];
+			this.epoca = 0;
+		}
+	}
+
+	/*
+	 * Registra que a CELULA foi alcançada com custo G. Retorna False se ela já foi alcançada
+	 * nesta iteração com custo igual ou menor, ou seja, se a célula pode ser descartada.
+	 */
+	private boolean registrar(int celula, int g) {
+		if(this.chaves == null)
+			return true;
+		int mascara = this.chaves.length - 1;
+		int inicio = espalhar(celula) & mascara;
+		for(int t = 0; t < TENTATIVAS; t++) {
+			int i = (inicio + t) & mascara;
+			if(this.epocas[i] != this.epoca) {
+				this.chaves[i] = celula;
+				this.custos[i] = g;
+				this.epocas[i] = this.epoca;
+				return true;
+			}
+			if(this.chaves[i] == celula) {
+				if(this.custos[i] <= g)
+					return false;
+				this.custos[i] = g;
+				return true;
+			}
+		}
+		this.chaves[inicio] = celula;
+		this.custos[inicio] = g;
+		return true;
+	}
+
+	private boolean noCaminho(int celula) {
+		int mascara = this.caminho.length - 1;
+		int chave = celula + 1;
+		for(int i = espalhar(celula) & mascara; this.caminho[i] != 0; i = (i + 1) & mascara)
+			if(this.caminho[i] == chave)
+				return true;
+		return false;
+	}
+
+	private void entrarCaminho(int celula) {
+		int mascara = this.caminho.length - 1;
+		int i = espalhar(celula) & mascara;
+		while(this.caminho[i] != 0)
+			i = (i + 1) & mascara;
+		this.caminho[i] = celula + 1;
+	}
+
+	/*
+	 * Remove a CELULA do conjunto do caminho, deslocando para trás as entradas seguintes
+	 * da mesma sequência de sondagem, para que as buscas continuem sem lápides
+	 */
+	private void sairCaminho(int celula) {
+		int mascara = this.caminho.length - 1;
+		int chave = celula + 1;
+		int i = espalhar(celula) & mascara;
+		while(this.caminho[i] != chave)
+			i = (i + 1) & mascara;
+		for(int j = (i + 1) & mascara; this.caminho[j] != 0; j = (j + 1) & mascara) {
+			int k = espalhar(this.caminho[j] - 1) & mascara;
+			//A entrada J fica se sua posição ideal K está entre I (exclusive) e J
+			if(i <= j ? (i < k && k <= j) : (i < k || k <= j))
+				continue;
+			this.caminho[i] = this.caminho[j];
+			i = j;
+		}
+		this.caminho[i] = 0;
+	}
+
+	private static int espalhar(int celula) {
+		int espalhado = celula * 0x9E3779B9;
+		return espalhado ^ (espalhado >>> 16);
+	}
+
+	private Solucao construirSolucao(int profundidade, int tamanho) {
+		int c = this.celulas[0];
+		Solucao solucao = new Solucao(c % tamanho, c / tamanho);
+		for(int i = 1; i <= profundidade; i++) {
+			c = this.celulas[i];
+			solucao = new Solucao(c % tamanho, c / tamanho, i, this.chegadas[i], solucao);
+		}
+		return solucao;
+	}
+
+	private void crescer() {
+		int capacidade = this.celulas.length * 2;
+		this.celulas = Arrays.copyOf(this.celulas, capacidade);
+		this.proximos = Arrays.copyOf(this.proximos, capacidade);
+		this.chegadas = Arrays.copyOf(this.chegadas, capacidade);
+
+		//Todas as células da pilha antiga estão no caminho
+		this.caminho = new int[capacidade * 2];
+		for(int i = 0; i < this.celulas.length / 2; i++)
+			this.entrarCaminho(this.celulas[i]);
+	}
+}
@@ -0,0 +1,212 @@
+package controller;
+
+import model.Labirinto;
+import model.Solucao;
+
+/**
+ * BuscaJuncoes
+ * Busca A Estrela sobre um GrafoJuncoes: expande apenas bifurcações e becos, andando
+ * cada corredor de uma vez, e expande o resultado de volta para uma Solucao célula
+ * a célula. Como o peso de um corredor nunca é menor que a distância euclidiana entre
+ * suas pontas, a heurística euclidiana continua consistente e o caminho é ótimo.
+ *
+ * O INICIO e o OBJETIVO podem estar no meio de um corredor: nesse caso a busca parte
+ * das duas pontas do corredor do INICIO e termina em qualquer das pontas do corredor
+ * do OBJETIVO, somando os passos até elas.
+ *
+ * Como o EspacoBusca do agente, o estado da busca fica em vetores primitivos indexados
+ * pelo nó e é reaproveitado entre buscas. Cada thread deve usar sua própria BuscaJuncoes;
+ * o grafo pode ser compartilhado.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class BuscaJuncoes {
+
+	private final GrafoJuncoes grafo;
+	private final int tamanho;
+
+	/*
+	 * custos ~> custo da melhor solução conhecida até o nó;
+	 * pais ~> nó de onde se chegou ao nó, -1 nos nós de partida;
+	 * vias ~> aresta usada a partir do pai, ou sentido do primeiro passo a partir do INICIO
+	 * 			nos nós de partida (-1 se o INICIO é o próprio nó);
+	 * visitas, descobertas, fronteira ~> como no EspacoBusca.
+	 */
+	private final int[] custos;
+	private final int[] pais;
+	private final int[] vias;
+	private final RegistroVisitas visitas;
+	private final RegistroVisitas descobertas;
+	private final FronteiraHeap fronteira;
+	private long expansoes;
+
+	/*
+	 * Pontas do corredor do OBJETIVO: nó, passos até o OBJETIVO e sentido do primeiro passo
+	 */
+	private final int[] alvos = new int[2];
+	private final int[] custosAlvo = new int[2];
+	private final int[] sentidosAlvo = new int[2];
+	private int quantidadeAlvos;
+
+	/**
+	 * Construtor padrão.
+	 * @param grafo Grafo de junções do labirinto.
+	 */
+	public BuscaJuncoes(GrafoJuncoes grafo) {
+		int nos = grafo.getNos();
+		this.grafo = grafo;
+		this.tamanho = grafo.getTamanho();
+		this.custos = new int[nos];
+		this.pais = new int[nos];
+		this.vias = new int[nos];
+		this.visitas = new RegistroVisitas(nos, false);
+		this.descobertas = new RegistroVisitas(nos, false);
+		this.fronteira = new FronteiraHeap(nos);
+	}
+
+	/**
+	 * Busca o menor caminho entre duas células.
+	 * @param estadoInicial Posição X, Y inicial.
+	 * @param estadoObjetivo Posição X, Y objetivo.
+	 * @return Solução que atinge o OBJETIVO ou NULO caso não exista caminho.
+	 */
+	public Solucao buscar(int[] estadoInicial, int[] estadoObjetivo) {
+		int inicio = estadoInicial[1] * this.tamanho + estadoInicial[0];
+		int objetivo = estadoObjetivo[1] * this.tamanho + estadoObjetivo[0];
+		this.visitas.limpar();
+		this.descobertas.limpar();
+		this.fronteira.limpar();
+		this.expansoes = 0;
+
+		Solucao solucao = new Solucao(estadoInicial[0], estadoInicial[1]);
+		if(inicio == objetivo)
+			return solucao;
+
+		int[] fim = new int[2];
+		int melhor = Integer.MAX_VALUE;
+		int direto = -1;
+
+		//Pontas do corredor do OBJETIVO
+		int noInicio = this.grafo.getNo(inicio);
+		this.quantidadeAlvos = 0;
+		int noObjetivo = this.grafo.getNo(objetivo);
+		if(noObjetivo >= 0) {
+			this.adicionarAlvo(noObjetivo, 0, -1);
+		} else {
+			for(int i = 0; i < 4; i++) {
+				if(!this.movimentoValido(objetivo, i))
+					continue;
+				int ponta = this.grafo.percorrer(objetivo, i, inicio, fim);
+				if(ponta != objetivo && (ponta != inicio || noInicio >= 0))
+					this.adicionarAlvo(this.grafo.getNo(ponta), fim[0], Labirinto.OPOSTO[fim[1]]);
+			}
+		}
+
+		//Pontas do corredor do INICIO, ou o caminho direto se o OBJETIVO está no mesmo corredor
+		if(noInicio >= 0) {
+			this.descobrir(noInicio, 0, -1, -1, objetivo);
+		} else {
+			for(int i = 0; i < 4; i++) {
+				if(!this.movimentoValido(inicio, i))
+					continue;
+				int ponta = this.grafo.percorrer(inicio, i, objetivo, fim);
+				if(ponta == objetivo) {
+					if(fim[0] < melhor) {
+						melhor = fim[0];
+						direto = i;
+					}
+				} else if(ponta != inicio) {
+					this.descobrir(this.grafo.getNo(ponta), fim[0], -1, i, objetivo);
+				}
+			}
+		}
+
+		int ultimo = -1;
+		int sentidoFinal = -1;
+		while(!this.fronteira.isVazia() && this.fronteira.getChaveMinima() < melhor) {
+			int no = (int) this.fronteira.remover();
+			this.visitas.visitar(no);
+			this.expansoes++;
+
+			int custo = this.custos[no];
+			for(int k = 0; k < this.quantidadeAlvos; k++) {
+				if(this.alvos[k] == no && custo + this.custosAlvo[k] < melhor) {
+					melhor = custo + this.custosAlvo[k];
+					ultimo = no;
+					sentidoFinal = this.sentidosAlvo[k];
+					direto = -1;
+				}
+			}
+
+			for(int e = this.grafo.getInicio(no), fimArestas = this.grafo.getInicio(no + 1); e < fimArestas; e++)
+				this.descobrir(this.grafo.getDestino(e), custo + this.grafo.getPeso(e), no, e, objetivo);
+		}
+
+		if(melhor == Integer.MAX_VALUE)
+			return null;
+		if(direto >= 0)
+			return this.grafo.estender(solucao, inicio, direto, objetivo);
+
+		//Refaz a sequência de nós, do primeiro ao último
+		int passos = 0;
+		for(int no = ultimo; no >= 0; no = this.pais[no])
+			passos++;
+		int[] sequencia = new int[passos];
+		for(int i = passos - 1, no = ultimo; i >= 0; i--, no = this.pais[no])
+			sequencia[i] = no;
+
+		int primeiro = sequencia[0];
+		if(this.vias[primeiro] >= 0)
+			solucao = this.grafo.estender(solucao, inicio, this.vias[primeiro], this.grafo.getCelula(primeiro));
+		for(int i = 1; i < passos; i++) {
+			int no = sequencia[i];
+			int pai = this.grafo.getCelula(this.pais[no]);
+			solucao = this.grafo.estender(solucao, pai, this.grafo.getSentido(this.vias[no]), this.grafo.getCelula(no));
+		}
+		if(sentidoFinal >= 0)
+			solucao = this.grafo.estender(solucao, this.grafo.getCelula(ultimo), sentidoFinal, objetivo);
+		return solucao;
+	}
+
+	/**
+	 * Retorna o número de nós expandidos pela última busca.
+	 * @return Número de nós expandidos.
+	 */
+	public long getExpansoes() {
+		return expansoes;
+	}
+
+	public GrafoJuncoes getGrafo() {
+		return grafo;
+	}
+
+	private void descobrir(int no, int custo, int pai, int via, int objetivo) {
+		if(this.visitas.foiVisitada(no))
+			return;
+		if(this.descobertas.foiVisitada(no) && this.custos[no] <= custo)
+			return;
+		this.descobertas.visitar(no);
+		this.custos[no] = custo;
+		this.pais[no] = pai;
+		this.vias[no] = via;
+		this.fronteira.adicionar(no, custo + this.heuristica(this.grafo.getCelula(no), objetivo), custo);
+	}
+
+	private void adicionarAlvo(int no, int custo, int sentido) {
+		this.alvos[this.quantidadeAlvos] = no;
+		this.custosAlvo[this.quantidadeAlvos] = custo;
+		this.sentidosAlvo[this.quantidadeAlvos] = sentido;
+		this.quantidadeAlvos++;
+	}
+
+	private boolean movimentoValido(int celula, int sentido) {
+		return this.grafo.getLabirinto().movimentoValido(celula % this.tamanho, celula / this.tamanho, sentido);
+	}
+
+	private double heuristica(int celula, int objetivo) {
+		double dx = celula % this.tamanho - objetivo % this.tamanho;
+		double dy = celula / this.tamanho - objetivo / this.tamanho;
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+}
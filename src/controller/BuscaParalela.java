@@ -0,0 +1,235 @@
+package controller;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import model.Labirinto;
+
+/**
+ * BuscaParalela
+ * Busca em amplitude sincronizada por nível, para labirintos grandes demais para
+ * uma única thread. Cada nível da fronteira é dividido em TRECHOS expandidos em
+ * paralelo num ForkJoinPool; a primeira thread a alcançar uma célula a reivindica
+ * com um compareAndSet num mapa de bits compartilhado e grava sua distância e
+ * sentido de chegada. As células reivindicadas por cada trecho formam, juntas, o
+ * próximo nível.
+ *
+ * O resultado é o CampoDistancias completo a partir da origem. O labirinto é apenas
+ * lido e não pode ser alterado durante a busca.
+ *
+ * Níveis pequenos são expandidos na própria thread que chamou a busca, evitando o
+ * custo de distribuir poucas células.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class BuscaParalela implements Closeable {
+
+	/*
+	 * MINIMO_TRECHO ~> menor número de células de um trecho expandido em paralelo
+	 * TRECHOS_POR_THREAD ~> trechos por thread em cada nível, para equilibrar a carga
+	 */
+	private static final int MINIMO_TRECHO = 4096;
+	private static final int TRECHOS_POR_THREAD = 4;
+
+	private final ForkJoinPool pool;
+	private final int paralelismo;
+
+	/*
+	 * Estado da busca em andamento
+	 */
+	private Labirinto labirinto;
+	private int tamanho;
+	private AtomicLongArray visitadas;
+	private int[] distancias;
+	private byte[] sentidos;
+	private Trecho[] trechos;
+
+	/**
+	 * Construtor parametrizado.
+	 * @param paralelismo Número de threads usadas na expansão de cada nível.
+	 */
+	public BuscaParalela(int paralelismo) {
+		this.paralelismo = paralelismo;
+		this.pool = new ForkJoinPool(paralelismo);
+		this.trechos = new Trecho[0];
+	}
+
+	/**
+	 * Construtor padrão, usando uma thread por processador.
+	 */
+	public BuscaParalela() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Calcula a distância de todas as células do labirinto até a célula X, Y.
+	 * @param labirinto Labirinto a ser percorrido.
+	 * @param x Posição X da origem no labirinto
+	 * @param y Posição y da origem no labirinto
+	 * @return Campo de distâncias e sentidos de chegada a partir da origem.
+	 * @throws IllegalArgumentException Se as células do labirinto não cabem em um vetor.
+	 */
+	public synchronized CampoDistancias calcular(Labirinto labirinto, int x, int y) {
+		int tamanho = labirinto.getTamanho();
+		int celulas = RegistroVisitas.contarCelulas(tamanho);
+		int origem = y * tamanho + x;
+
+		this.labirinto = labirinto;
+		this.tamanho = tamanho;
+		this.visitadas = new AtomicLongArray((int) ((celulas + 63L) >>> 6));
+		this.distancias = new int[celulas];
+		this.sentidos = new byte[celulas];
+		Arrays.fill(this.distancias, -1);
+
+		this.reivindicar(origem);
+		this.distancias[origem] = 0;
+		this.sentidos[origem] = -1;
+
+		int[] nivel = {origem};
+		int quantidade = 1;
+		int alcancadas = 1;
+		int profundidade = 0;
+		try {
+			while(true) {
+				int partes = this.dividir(nivel, quantidade, profundidade + 1);
+				if(partes == 1)
+					this.trechos[0].compute();
+				else
+					this.pool.invoke(new Nivel(partes));
+
+				quantidade = 0;
+				for(int i = 0; i < partes; i++)
+					quantidade += this.trechos[i].quantidade;
+				if(quantidade == 0)
+					break;
+
+				if(nivel.length < quantidade)
+					nivel = new int[Math.max(quantidade, nivel.length * 2)];
+				for(int i = 0, j = 0; i < partes; i++) {
+					Trecho trecho = this.trechos[i];
+					System.arraycopy(trecho.saida, 0, nivel, j, trecho.quantidade);
+					j += trecho.quantidade;
+				}
+				alcancadas += quantidade;
+				profundidade++;
+			}
+			return new CampoDistancias(tamanho, origem, this.distancias, this.sentidos, alcancadas, profundidade);
+		} finally {
+			this.labirinto = null;
+			this.visitadas = null;
+			this.distancias = null;
+			this.sentidos = null;
+		}
+	}
+
+	/**
+	 * Encerra as threads da busca.
+	 */
+	@Override
+	public void close() {
+		this.pool.shutdown();
+	}
+
+	public int getParalelismo() {
+		return paralelismo;
+	}
+
+	/*
+	 * Divide as QUANTIDADE primeiras células de NIVEL em trechos, reaproveitando os trechos
+	 * (e suas saídas) do nível anterior. Retorna o número de trechos usados.
+	 */
+	private int dividir(int[] nivel, int quantidade, int distancia) {
+		int partes = Math.min(this.paralelismo * TRECHOS_POR_THREAD,
+				Math.max(1, quantidade / MINIMO_TRECHO));
+		if(this.trechos.length < partes) {
+			Trecho[] maior = Arrays.copyOf(this.trechos, partes);
+			for(int i = this.trechos.length; i < partes; i++)
+				maior[i] = new Trecho();
+			this.trechos = maior;
+		}
+		for(int i = 0; i < partes; i++) {
+			Trecho trecho = this.trechos[i];
+			trecho.reinitialize();
+			trecho.nivel = nivel;
+			trecho.inicio = (int) ((long) quantidade * i / partes);
+			trecho.fim = (int) ((long) quantidade * (i + 1) / partes);
+			trecho.distancia = distancia;
+			trecho.quantidade = 0;
+		}
+		return partes;
+	}
+
+	/*
+	 * Marca a célula no mapa de bits. Retorna True apenas para a thread que a marcou primeiro.
+	 */
+	private boolean reivindicar(int celula) {
+		int palavra = celula >>> 6;
+		long bit = 1L << celula;
+		while(true) {
+			long marcas = this.visitadas.get(palavra);
+			if((marcas & bit) != 0)
+				return false;
+			if(this.visitadas.compareAndSet(palavra, marcas, marcas | bit))
+				return true;
+		}
+	}
+
+	/*
+	 * Expansão de um nível inteiro: executa todos os trechos e aguarda o fim de cada um
+	 */
+	@SuppressWarnings("serial")
+	private class Nivel extends RecursiveAction {
+		private final int partes;
+
+		Nivel(int partes) {
+			this.partes = partes;
+		}
+
+		@Override
+		protected void compute() {
+			invokeAll(Arrays.copyOf(trechos, this.partes));
+		}
+	}
+
+	/*
+	 * Trecho de um nível: expande as células NIVEL[INICIO..FIM) e guarda em SAIDA
+	 * as vizinhas que reivindicou
+	 */
+	@SuppressWarnings("serial")
+	private class Trecho extends RecursiveAction {
+		int[] nivel;
+		int inicio, fim;
+		int distancia;
+		int[] saida = new int[64];
+		int quantidade;
+
+		@Override
+		protected void compute() {
+			Labirinto labirinto = BuscaParalela.this.labirinto;
+			int tamanho = BuscaParalela.this.tamanho;
+			int[] distancias = BuscaParalela.this.distancias;
+			byte[] sentidos = BuscaParalela.this.sentidos;
+			for(int k = this.inicio; k < this.fim; k++) {
+				int celula = this.nivel[k];
+				int x = celula % tamanho;
+				int y = celula / tamanho;
+				for(int i = 0; i < 4; i++) {
+					if(!labirinto.movimentoValido(x, y, i))
+						continue;
+					int vizinha = celula + Labirinto.DX[i] + Labirinto.DY[i] * tamanho;
+					if(!reivindicar(vizinha))
+						continue;
+					distancias[vizinha] = this.distancia;
+					sentidos[vizinha] = (byte) i;
+					if(this.quantidade == this.saida.length)
+						this.saida = Arrays.copyOf(this.saida, this.saida.length * 2);
+					this.saida[this.quantidade++] = vizinha;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,267 @@
+package controller;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import model.Labirinto;
+import model.Solucao;
+import controller.AgenteBuscaAbstrato.Busca;
+
+/**
+ * CacheCaminhos
+ * Cache dos caminhos já calculados sobre um Labirinto, identificados pela versão
+ * do labirinto, INICIO, OBJETIVO, tipo de Busca e, nas buscas informadas (A Estrela,
+ * Gulosa e Bidirecional), a Heuristica, comparada por equals. Buscas sem solução
+ * também são guardadas.
+ *
+ * Os caminhos são guardados compactos, com 2 bits por passo (o sentido do movimento),
+ * e a Solucao é montada novamente a cada acerto. Quando o cache ultrapassa sua
+ * CAPACIDADE, em bytes estimados, os caminhos usados há mais tempo são descartados (LRU).
+ *
+ * Toda alteração do labirinto muda sua versão (Labirinto.getVersao); ao perceber a
+ * mudança o cache descarta todos os caminhos. Um resultado calculado numa versão que
+ * já mudou quando ele é guardado é descartado.
+ *
+ * Os métodos são sincronizados, então um cache pode ser compartilhado por agentes
+ * em threads diferentes.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class CacheCaminhos {
+
+	/*
+	 * Bytes estimados de uma entrada além dos sentidos: chave, caminho e nó do mapa
+	 */
+	private static final int BYTES_ENTRADA = 128;
+
+	private final Labirinto labirinto;
+	private final long capacidade;
+	private final LinkedHashMap<Chave, Caminho> caminhos;
+	private long versao;
+	private long ocupacao;
+	private long acertos;
+	private long falhas;
+	private long descartes;
+
+	/**
+	 * Construtor parametrizado.
+	 * @param labirinto Labirinto cujos caminhos serão guardados.
+	 * @param capacidade Memória máxima, em bytes estimados, ocupada pelos caminhos.
+	 */
+	public CacheCaminhos(Labirinto labirinto, long capacidade) {
+		this.labirinto = labirinto;
+		this.capacidade = capacidade;
+		this.caminhos = new LinkedHashMap<Chave, Caminho>(16, 0.75f, true);
+		this.versao = labirinto.getVersao();
+	}
+
+	/**
+	 * Construtor padrão, com capacidade de 16 MB.
+	 * @param labirinto Labirinto cujos caminhos serão guardados.
+	 */
+	public CacheCaminhos(Labirinto labirinto) {
+		this(labirinto, 16L << 20);
+	}
+
+	/**
+	 * Verifica se o caminho entre INICIO e OBJETIVO calculado pelo tipo de Busca está
+	 * guardado, sem contar acerto ou falha.
+	 * @param inicio Posição X, Y inicial.
+	 * @param objetivo Posição X, Y objetivo.
+	 * @param tipo Tipo de Busca que calculou o caminho.
+	 * @param heuristica Heurística usada pela busca.
+	 * @return True se o caminho está no cache, mesmo que a busca não tenha encontrado solução.
+	 */
+	public synchronized boolean contem(int[] inicio, int[] objetivo, Busca tipo, Heuristica heuristica) {
+		this.validar();
+		return this.caminhos.containsKey(this.chave(inicio, objetivo, tipo, heuristica));
+	}
+
+	/**
+	 * Retorna o caminho guardado entre INICIO e OBJETIVO, contando um acerto se ele está
+	 * guardado (mesmo sem solução) ou uma falha caso contrário. Use contem para distinguir
+	 * uma falha de uma busca sem solução guardada.
+	 * @param inicio Posição X, Y inicial.
+	 * @param objetivo Posição X, Y objetivo.
+	 * @param tipo Tipo de Busca que calculou o caminho.
+	 * @param heuristica Heurística usada pela busca.
+	 * @return Solução guardada, ou NULO se não está no cache ou se a busca não teve solução.
+	 */
+	public synchronized Solucao buscar(int[] inicio, int[] objetivo, Busca tipo, Heuristica heuristica) {
+		this.validar();
+		Caminho caminho = this.caminhos.get(this.chave(inicio, objetivo, tipo, heuristica));
+		if(caminho == null) {
+			this.falhas++;
+			return null;
+		}
+		this.acertos++;
+		return caminho.construirSolucao(inicio, this.labirinto);
+	}
+
+	/**
+	 * Guarda o resultado de uma busca calculada na VERSAO do labirinto. Se o labirinto
+	 * mudou desde então o resultado já não vale e é descartado.
+	 * @param versao Versão do labirinto lida antes de a busca começar.
+	 * @param inicio Posição X, Y inicial.
+	 * @param objetivo Posição X, Y objetivo.
+	 * @param tipo Tipo de Busca que calculou o caminho.
+	 * @param heuristica Heurística usada pela busca.
+	 * @param solucao Solução encontrada, ou NULO se a busca não teve solução.
+	 * @return True se o resultado foi guardado.
+	 */
+	public synchronized boolean guardar(long versao, int[] inicio, int[] objetivo, Busca tipo,
+			Heuristica heuristica, Solucao solucao) {
+		this.validar();
+		if(versao != this.versao)
+			return false;
+		Caminho caminho = new Caminho(solucao);
+		Caminho anterior = this.caminhos.put(this.chave(inicio, objetivo, tipo, heuristica), caminho);
+		if(anterior != null)
+			this.ocupacao -= anterior.getBytes();
+		this.ocupacao += caminho.getBytes();
+
+		Iterator<Caminho> antigos = this.caminhos.values().iterator();
+		while(this.ocupacao > this.capacidade && antigos.hasNext()) {
+			this.ocupacao -= antigos.next().getBytes();
+			antigos.remove();
+			this.descartes++;
+		}
+		return true;
+	}
+
+	/**
+	 * Descarta todos os caminhos guardados.
+	 */
+	public synchronized void limpar() {
+		this.caminhos.clear();
+		this.ocupacao = 0;
+	}
+
+	public Labirinto getLabirinto() {
+		return labirinto;
+	}
+
+	public long getCapacidade() {
+		return capacidade;
+	}
+
+	public synchronized int getQuantidade() {
+		return this.caminhos.size();
+	}
+
+	public synchronized long getOcupacao() {
+		return ocupacao;
+	}
+
+	public synchronized long getAcertos() {
+		return acertos;
+	}
+
+	public synchronized long getFalhas() {
+		return falhas;
+	}
+
+	public synchronized long getDescartes() {
+		return descartes;
+	}
+
+	/*
+	 * Descarta os caminhos de versões anteriores do labirinto
+	 */
+	private void validar() {
+		long versao = this.labirinto.getVersao();
+		if(versao != this.versao) {
+			this.limpar();
+			this.versao = versao;
+		}
+	}
+
+	private Chave chave(int[] inicio, int[] objetivo, Busca tipo, Heuristica heuristica) {
+		int tamanho = this.labirinto.getTamanho();
+		//Amplitude e Profundidade não usam a heurística
+		boolean informada = tipo == Busca.AESTRELA || tipo == Busca.GULOSA || tipo == Busca.BIDIRECIONAL;
+		return new Chave(this.versao, inicio[1] * tamanho + inicio[0], objetivo[1] * tamanho + objetivo[0], tipo,
+				informada ? heuristica : null);
+	}
+
+	/*
+	 * Chave (versão, inicio, objetivo, tipo, heurística) de um caminho
+	 */
+	private static final class Chave {
+		private final long versao;
+		private final int inicio;
+		private final int objetivo;
+		private final Busca tipo;
+		private final Heuristica heuristica;
+
+		Chave(long versao, int inicio, int objetivo, Busca tipo, Heuristica heuristica) {
+			this.versao = versao;
+			this.inicio = inicio;
+			this.objetivo = objetivo;
+			this.tipo = tipo;
+			this.heuristica = heuristica;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(!(obj instanceof Chave))
+				return false;
+			Chave outra = (Chave) obj;
+			return this.versao == outra.versao && this.inicio == outra.inicio
+					&& this.objetivo == outra.objetivo && this.tipo == outra.tipo
+					&& (this.heuristica == null ? outra.heuristica == null : this.heuristica.equals(outra.heuristica));
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = (int) (this.versao ^ (this.versao >>> 32));
+			hash = 31 * hash + this.inicio;
+			hash = 31 * hash + this.objetivo;
+			hash = 31 * hash + this.tipo.ordinal();
+			return 31 * hash + (this.heuristica == null ? 0 : this.heuristica.hashCode());
+		}
+	}
+
+	/*
+	 * Caminho compacto: sentidos dos PASSOS movimentos, 4 por byte. Sem sentidos se
+	 * a busca não teve solução.
+	 */
+	private static final class Caminho {
+		private final int passos;
+		private final byte[] sentidos;
+
+		Caminho(Solucao solucao) {
+			if(solucao == null) {
+				this.passos = -1;
+				this.sentidos = null;
+				return;
+			}
+			int passos = 0;
+			for(Solucao s = solucao; s.getPai() != null; s = s.getPai())
+				passos++;
+			this.passos = passos;
+			this.sentidos = new byte[(passos + 3) >>> 2];
+			int i = passos;
+			for(Solucao s = solucao; s.getPai() != null; s = s.getPai()) {
+				i--;
+				this.sentidos[i >>> 2] |= s.getAcao() << ((i & 3) << 1);
+			}
+		}
+
+		Solucao construirSolucao(int[] inicio, Labirinto labirinto) {
+			if(this.passos < 0)
+				return null;
+			Solucao solucao = new Solucao(inicio[0], inicio[1]);
+			for(int i = 0; i < this.passos; i++) {
+				int sentido = (this.sentidos[i >>> 2] >>> ((i & 3) << 1)) & 3;
+				solucao = solucao.moverPara(sentido, labirinto);
+			}
+			return solucao;
+		}
+
+		long getBytes() {
+			return BYTES_ENTRADA + (this.sentidos == null ? 0 : this.sentidos.length);
+		}
+	}
+}
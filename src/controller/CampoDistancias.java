@@ -0,0 +1,173 @@
+package controller;
+
+import model.Labirinto;
+import model.Solucao;
+
+/**
+ * CampoDistancias
+ * Resultado de uma busca em amplitude completa a partir de uma ORIGEM: para cada
+ * célula (Y * TAMANHO + X), a distância em passos até a origem e o sentido do
+ * movimento que levou a célula a partir de sua célula pai.
+ *
+ * Células não alcançáveis a partir da origem têm distância -1.
+ *
+ * Calculado a partir de um OBJETIVO, o campo também é um campo de fluxo: o sentido
+ * oposto ao de chegada leva cada célula um passo mais perto do objetivo
+ * (getSentidoParaOrigem), e muitos agentes podem segui-lo sem busca própria.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class CampoDistancias {
+
+	private final int tamanho;
+	private final int origem;
+	private final int[] distancias;
+	private final byte[] sentidos;
+	private final int alcancadas;
+	private final int profundidade;
+
+	/**
+	 * Construtor parametrizado.
+	 * @param tamanho Tamanho N do labirinto (NxN células).
+	 * @param origem Índice da célula de origem.
+	 * @param distancias Distância de cada célula, -1 se não alcançável.
+	 * @param sentidos Sentido de chegada de cada célula alcançável, -1 na origem.
+	 * @param alcancadas Número de células alcançáveis, incluindo a origem.
+	 * @param profundidade Maior distância do campo.
+	 */
+	public CampoDistancias(int tamanho, int origem, int[] distancias, byte[] sentidos,
+			int alcancadas, int profundidade) {
+		this.tamanho = tamanho;
+		this.origem = origem;
+		this.distancias = distancias;
+		this.sentidos = sentidos;
+		this.alcancadas = alcancadas;
+		this.profundidade = profundidade;
+	}
+
+	/**
+	 * Retorna a distância da célula X, Y até a origem.
+	 * @param x Posição X da célula no labirinto
+	 * @param y Posição y da célula no labirinto
+	 * @return Número de passos, ou -1 se a célula não é alcançável.
+	 */
+	public int getDistancia(int x, int y) {
+		return this.distancias[y * this.tamanho + x];
+	}
+
+	/**
+	 * Retorna o sentido do movimento que levou a célula X, Y a partir de sua célula pai.
+	 * @param x Posição X da célula no labirinto
+	 * @param y Posição y da célula no labirinto
+	 * @return Sentido N, S, L, O ou -1 na origem e em células não alcançáveis.
+	 */
+	public int getSentido(int x, int y) {
+		int celula = y * this.tamanho + x;
+		return this.distancias[celula] > 0 ? this.sentidos[celula] : -1;
+	}
+
+	/**
+	 * Retorna o sentido do primeiro passo do menor caminho da célula X, Y até a origem.
+	 * Seguir esses sentidos a partir de qualquer célula alcançável leva a origem, com
+	 * custo O(1) por passo (campo de fluxo).
+	 * @param x Posição X da célula no labirinto
+	 * @param y Posição y da célula no labirinto
+	 * @return Sentido N, S, L, O ou -1 na origem e em células não alcançáveis.
+	 */
+	public int getSentidoParaOrigem(int x, int y) {
+		int celula = y * this.tamanho + x;
+		return this.distancias[celula] > 0 ? Labirinto.OPOSTO[this.sentidos[celula]] : -1;
+	}
+
+	/**
+	 * Verifica se a célula X, Y é alcançável a partir da origem.
+	 * @param x Posição X da célula no labirinto
+	 * @param y Posição y da célula no labirinto
+	 * @return True se existe caminho até a origem.
+	 */
+	public boolean isAlcancavel(int x, int y) {
+		return this.distancias[y * this.tamanho + x] >= 0;
+	}
+
+	/**
+	 * Monta a solução da origem até a célula X, Y seguindo os sentidos de chegada.
+	 * @param x Posição X da célula no labirinto
+	 * @param y Posição y da célula no labirinto
+	 * @return Solução que atinge a célula, ou NULO se ela não é alcançável.
+	 */
+	public Solucao construirSolucao(int x, int y) {
+		int celula = y * this.tamanho + x;
+		int passos = this.distancias[celula];
+		if(passos < 0)
+			return null;
+
+		int[] caminho = new int[passos + 1];
+		for(int i = passos, c = celula; i > 0; i--) {
+			caminho[i] = c;
+			int sentido = this.sentidos[c];
+			c -= Labirinto.DX[sentido] + Labirinto.DY[sentido] * this.tamanho;
+		}
+		caminho[0] = this.origem;
+
+		Solucao solucao = new Solucao(this.origem % this.tamanho, this.origem / this.tamanho);
+		for(int i = 1; i <= passos; i++) {
+			int c = caminho[i];
+			solucao = new Solucao(c % this.tamanho, c / this.tamanho, i, this.sentidos[c], solucao);
+		}
+		return solucao;
+	}
+
+	/**
+	 * Monta a solução da célula X, Y até a origem seguindo o campo de fluxo.
+	 * @param x Posição X da célula no labirinto
+	 * @param y Posição y da célula no labirinto
+	 * @return Solução que parte da célula e atinge a origem, ou NULO se ela não é alcançável.
+	 */
+	public Solucao construirSolucaoAteOrigem(int x, int y) {
+		int celula = y * this.tamanho + x;
+		int passos = this.distancias[celula];
+		if(passos < 0)
+			return null;
+
+		Solucao solucao = new Solucao(x, y);
+		for(int i = 1; i <= passos; i++) {
+			int sentido = Labirinto.OPOSTO[this.sentidos[celula]];
+			celula += Labirinto.DX[sentido] + Labirinto.DY[sentido] * this.tamanho;
+			solucao = new Solucao(celula % this.tamanho, celula / this.tamanho, i, sentido, solucao);
+		}
+		return solucao;
+	}
+
+	/*
+	 * Vetor de distâncias indexado pela célula, para leitura pelas classes do pacote
+	 */
+	int[] getDistancias() {
+		return distancias;
+	}
+
+	public int getTamanho() {
+		return tamanho;
+	}
+
+	public int[] getOrigem() {
+		int[] posicao = {this.origem % this.tamanho, this.origem / this.tamanho};
+		return posicao;
+	}
+
+	/**
+	 * Retorna o número de células alcançáveis a partir da origem, incluindo ela.
+	 * @return Número de células com distância definida.
+	 */
+	public int getAlcancadas() {
+		return alcancadas;
+	}
+
+	/**
+	 * Retorna a maior distância do campo, ou seja, o número de níveis da busca menos um.
+	 * @return Distância da célula alcançável mais distante.
+	 */
+	public int getProfundidade() {
+		return profundidade;
+	}
+}
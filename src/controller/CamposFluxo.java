@@ -0,0 +1,118 @@
+package controller;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import model.Labirinto;
+import model.Solucao;
+
+/**
+ * CamposFluxo
+ * Campos de fluxo de um Labirinto, um por OBJETIVO: uma única busca em amplitude a
+ * partir do objetivo (BuscaParalela) dá a todas as células a distância e o sentido do
+ * próximo passo até ele. Os agentes que compartilham o objetivo seguem o campo com
+ * custo O(1) por passo, sem busca própria (AgenteFluxo).
+ *
+ * Os campos ficam guardados até CAPACIDADE objetivos, descartando os usados há mais
+ * tempo (LRU). Os campos contam passos e não dependem dos pesos, então valem enquanto
+ * as paredes não mudam: toda parede alterada muda a versão das paredes
+ * (Labirinto.getVersaoParedes) e, ao perceber a mudança, todos os campos são
+ * descartados e recalculados quando pedidos. Alterar pesos não descarta nenhum campo.
+ *
+ * Os métodos são sincronizados, então os campos podem ser compartilhados por agentes em
+ * threads diferentes. Um CampoDistancias não muda depois de calculado: o agente o pede
+ * uma vez e o lê sem sincronização a cada passo, pedindo de novo só quando a versão das
+ * paredes muda.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class CamposFluxo implements Closeable {
+
+	private final Labirinto labirinto;
+	private final int capacidade;
+	private final BuscaParalela busca;
+	private final LinkedHashMap<Integer, CampoDistancias> campos;
+	private long versao;
+	private long calculos;
+
+	/**
+	 * Construtor parametrizado.
+	 * @param labirinto Labirinto dos campos.
+	 * @param capacidade Número máximo de objetivos com campo guardado.
+	 */
+	public CamposFluxo(Labirinto labirinto, int capacidade) {
+		this.labirinto = labirinto;
+		this.capacidade = capacidade;
+		this.busca = new BuscaParalela();
+		this.campos = new LinkedHashMap<Integer, CampoDistancias>(16, 0.75f, true);
+		this.versao = labirinto.getVersaoParedes();
+	}
+
+	/**
+	 * Construtor padrão, guardando até 16 campos.
+	 * @param labirinto Labirinto dos campos.
+	 */
+	public CamposFluxo(Labirinto labirinto) {
+		this(labirinto, 16);
+	}
+
+	/**
+	 * Retorna o campo do OBJETIVO, calculando-o se ainda não está guardado.
+	 * @param objetivo Posição X, Y do objetivo.
+	 * @return Campo de distâncias a partir do objetivo.
+	 */
+	public synchronized CampoDistancias getCampo(int[] objetivo) {
+		long versao = this.labirinto.getVersaoParedes();
+		if(versao != this.versao) {
+			this.campos.clear();
+			this.versao = versao;
+		}
+
+		Integer chave = objetivo[1] * this.labirinto.getTamanho() + objetivo[0];
+		CampoDistancias campo = this.campos.get(chave);
+		if(campo == null) {
+			campo = this.busca.calcular(this.labirinto, objetivo[0], objetivo[1]);
+			this.calculos++;
+			this.campos.put(chave, campo);
+			Iterator<Integer> antigos = this.campos.keySet().iterator();
+			while(this.campos.size() > this.capacidade) {
+				antigos.next();
+				antigos.remove();
+			}
+		}
+		return campo;
+	}
+
+	/**
+	 * Monta o menor caminho do INICIO ao OBJETIVO seguindo o campo.
+	 * @param inicio Posição X, Y inicial.
+	 * @param objetivo Posição X, Y do objetivo.
+	 * @return Solução que atinge o OBJETIVO ou NULO caso não exista caminho.
+	 */
+	public Solucao construirSolucao(int[] inicio, int[] objetivo) {
+		return this.getCampo(objetivo).construirSolucaoAteOrigem(inicio[0], inicio[1]);
+	}
+
+	/**
+	 * Retorna quantos campos foram calculados desde a criação, para acompanhar o
+	 * aproveitamento dos campos guardados.
+	 * @return Número de buscas em amplitude executadas.
+	 */
+	public synchronized long getCalculos() {
+		return calculos;
+	}
+
+	public Labirinto getLabirinto() {
+		return labirinto;
+	}
+
+	/**
+	 * Encerra as threads usadas no cálculo dos campos.
+	 */
+	@Override
+	public void close() {
+		this.busca.close();
+	}
+}
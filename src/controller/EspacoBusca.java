@@ -0,0 +1,185 @@
+package controller;
+
+import model.ArmazenamentoMapeado;
+import model.Labirinto;
+import model.Solucao;
+
+/**
+ * EspacoBusca
+ * Estado de execução de uma busca indexado pela célula (Y * TAMANHO + X) e reaproveitado
+ * entre buscas:
+ *
+ * custos ~> custo acumulado da melhor solução conhecida para a célula;
+ * acoes ~> sentido do movimento que levou a célula a partir de sua célula pai, -1 na origem;
+ * visitas ~> células já visitadas (expandidas);
+ * descobertas ~> células que já receberam um custo nesta busca;
+ * fronteira ~> células a serem visitadas.
+ *
+ * Como o caminho é guardado apenas pelo sentido de chegada em cada célula, expandir
+ * uma célula não aloca objetos: a corrente de Solucao é montada somente quando pedida,
+ * tipicamente uma vez ao atingir o objetivo.
+ *
+ * Há dois layouts, escolhidos por criar de acordo com o labirinto:
+ *
+ * EspacoBuscaVetores ~> vetores primitivos no heap, cerca de 21 bytes
+ * 				por célula contando o índice da FronteiraHeap;
+ * EspacoBuscaMapeado ~> 4 bits por célula em um arquivo mapeado em memória, para
+ * 				labirintos do ArmazenamentoMapeado ou que não cabem no heap.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public abstract class EspacoBusca {
+
+	/*
+	 * Bytes por célula do EspacoBuscaVetores: custo (4), ação (1), marcas de visita e de
+	 * descoberta (4 + 4), ordem das visitas (4) e o índice da FronteiraHeap (4)
+	 */
+	private static final long BYTES_CELULA_VETORES = 21;
+	private static final int MAXIMO_VETOR = Integer.MAX_VALUE - 8;
+
+	protected final int tamanho;
+	protected Fronteira fronteira;
+
+	protected EspacoBusca(int tamanho) {
+		this.tamanho = tamanho;
+	}
+
+	/**
+	 * Cria o espaço de busca adequado ao labirinto: mapeado em arquivo se as paredes estão
+	 * no ArmazenamentoMapeado, se as células não cabem em um vetor ou se os vetores
+	 * ocupariam mais que o heap da JVM; em vetores caso contrário.
+	 * @param labirinto Labirinto a ser percorrido.
+	 * @param pesoDoPai True se cada passo da árvore da busca custa o peso da célula pai,
+	 * como na busca reversa do AgenteBusca; False se custa o peso da célula filha.
+	 * @return Espaço de busca vazio.
+	 */
+	public static EspacoBusca criar(Labirinto labirinto, boolean pesoDoPai) {
+		if(precisaMapeado(labirinto))
+			return new EspacoBuscaMapeado(labirinto, pesoDoPai);
+		return new EspacoBuscaVetores(labirinto.getTamanho());
+	}
+
+	static boolean precisaMapeado(Labirinto labirinto) {
+		long celulas = (long) labirinto.getTamanho() * labirinto.getTamanho();
+		return labirinto.getArmazenamento() instanceof ArmazenamentoMapeado
+				|| celulas > MAXIMO_VETOR
+				|| celulas * BYTES_CELULA_VETORES > Runtime.getRuntime().maxMemory();
+	}
+
+	/**
+	 * Verifica se o espaço pode ser reaproveitado por uma busca no labirinto, ou seja, se
+	 * criar escolheria o mesmo layout com o mesmo tamanho.
+	 * @param labirinto Labirinto da próxima busca.
+	 * @return True se o espaço serve ao labirinto.
+	 */
+	public abstract boolean serve(Labirinto labirinto);
+
+	/**
+	 * Limpa o estado da busca anterior, em tempo independente do número de células.
+	 * @param fronteira Fronteira a ser usada na nova busca; é esvaziada.
+	 */
+	public void reiniciar(Fronteira fronteira) {
+		this.limpar();
+		this.fronteira = fronteira;
+		this.fronteira.limpar();
+	}
+
+	/**
+	 * Desmarca todas as células, descartando custos e sentidos de chegada.
+	 */
+	protected abstract void limpar();
+
+	/**
+	 * Cria a FronteiraHeap adequada ao layout: com índice de posições nos vetores, sem
+	 * índice (células repetidas) no espaço mapeado.
+	 * @return Fronteira vazia.
+	 */
+	public abstract FronteiraHeap criarHeap();
+
+	/**
+	 * Registra a descoberta da célula com o custo e o sentido de chegada informados,
+	 * caso ela ainda não tenha sido visitada e o custo seja melhor que o conhecido.
+	 * A célula NÃO é adicionada a fronteira, pois a chave depende do tipo de busca.
+	 * @param celula Índice da célula.
+	 * @param custo Custo acumulado até a célula.
+	 * @param acao Sentido do movimento que levou a célula, -1 na origem.
+	 * @return True se a célula foi atualizada e deve ir para a fronteira.
+	 */
+	public abstract boolean descobrir(long celula, int custo, int acao);
+
+	/**
+	 * Marca a célula como visitada.
+	 * @param celula Índice da célula.
+	 */
+	public abstract void visitar(long celula);
+
+	/**
+	 * Verifica se a célula já foi visitada.
+	 * @param celula Índice da célula.
+	 * @return True se a célula foi visitada.
+	 */
+	public abstract boolean foiVisitada(long celula);
+
+	/**
+	 * Verifica se a célula já recebeu um custo nesta busca.
+	 * @param celula Índice da célula.
+	 * @return True se a célula foi descoberta.
+	 */
+	public abstract boolean foiDescoberta(long celula);
+
+	/**
+	 * Retorna o custo acumulado até a célula. Válido apenas para células descobertas.
+	 * @param celula Índice da célula.
+	 * @return Custo da melhor solução conhecida.
+	 */
+	public abstract int getCusto(long celula);
+
+	/**
+	 * Retorna o sentido do movimento que levou a célula. Válido apenas para células descobertas.
+	 * @param celula Índice da célula.
+	 * @return Sentido N, S, L, O ou -1 na origem.
+	 */
+	public abstract int getAcao(long celula);
+
+	/**
+	 * Retorna a célula pai da célula informada.
+	 * @param celula Índice da célula descoberta.
+	 * @return Índice da célula pai ou -1 na origem.
+	 */
+	public long getPai(long celula) {
+		int acao = this.getAcao(celula);
+		if(acao < 0)
+			return -1;
+		return celula - Labirinto.DX[acao] - Labirinto.DY[acao] * this.tamanho;
+	}
+
+	/**
+	 * Monta a corrente de soluções da origem até a célula, seguindo os sentidos de chegada.
+	 * @param celula Índice da célula descoberta.
+	 * @return Solução que atinge a célula.
+	 */
+	public abstract Solucao construirSolucao(long celula);
+
+	/**
+	 * Retorna o número de células visitadas desde a última limpeza.
+	 * @return Quantidade de células visitadas.
+	 */
+	public abstract long getQuantidadeVisitas();
+
+	/**
+	 * Retorna a I-ésima célula visitada desde a última limpeza.
+	 * @param i Ordem da visita, entre 0 e getQuantidadeVisitas() - 1.
+	 * @return Índice da célula.
+	 * @throws UnsupportedOperationException Se o layout não guarda a ordem das visitas.
+	 */
+	public abstract long getVisita(int i);
+
+	public int getTamanho() {
+		return tamanho;
+	}
+
+	public Fronteira getFronteira() {
+		return fronteira;
+	}
+}
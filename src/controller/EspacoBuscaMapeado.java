@@ -0,0 +1,364 @@
+package controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import model.Labirinto;
+import model.Solucao;
+
+/**
+ * EspacoBuscaMapeado
+ * Espaço de busca para labirintos maiores que o heap, como os do ArmazenamentoMapeado.
+ * Cada célula ocupa 4 bits de um arquivo temporário mapeado em memória, como as paredes
+ * no ArmazenamentoMapeado: a marca de visitada e o sentido de chegada das células
+ * visitadas. Só as células descobertas e ainda não visitadas (abertas) ficam no heap, numa
+ * tabela de espalhamento com seu custo e sentido de chegada; o heap ocupado acompanha a
+ * fronteira, não o labirinto.
+ *
+ * O custo das células visitadas não é guardado no arquivo. Quando pedido, é refeito somando
+ * os pesos ao longo dos sentidos de chegada até a raiz: a busca o pede ao expandir a
+ * célula, ao montar a solução e, na busca bidirecional, nos encontros das duas buscas.
+ * Os últimos custos refeitos ficam numa pequena tabela, de onde também saem os custos
+ * dos pais e dos filhos das células lembradas; assim os encontros da busca bidirecional,
+ * em células vizinhas entre si, refazem cada custo em tempo constante.
+ *
+ * A ordem das visitas não é guardada. Limpar o espaço troca o arquivo por um novo, vazio,
+ * sem percorrer as células.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class EspacoBuscaMapeado extends EspacoBusca {
+
+	private static final int VISITADA = 8;
+	private static final int COM_ACAO = 4;
+
+	private static final int BITS_REGIAO = 30;
+	private static final long REGIAO = 1L << BITS_REGIAO;
+
+	private static final long VAZIA = -1;
+	private static final int ABERTAS_INICIAL = 1024;
+	private static final int LEMBRADAS = 1 << 14;
+
+	/*
+	 * regioes ~> 4 bits por célula, 2 células por byte, mapeados em regiões de REGIAO bytes;
+	 * sujo ~> alguma célula foi visitada desde que o arquivo foi criado;
+	 * abertas, custosAbertas, acoesAbertas ~> tabela de espalhamento das células abertas,
+	 * 				com sondagem linear e VAZIA nas posições livres;
+	 * lembradas, custosLembradas ~> custos refeitos de células visitadas, um por posição.
+	 */
+	private final Labirinto labirinto;
+	private final boolean pesoDoPai;
+	private MappedByteBuffer[] regioes;
+	private boolean sujo;
+	private long visitadas;
+	private long[] abertas;
+	private int[] custosAbertas;
+	private byte[] acoesAbertas;
+	private int quantidadeAbertas;
+	private final long[] lembradas;
+	private final int[] custosLembradas;
+
+	/**
+	 * Construtor parametrizado.
+	 * @param labirinto Labirinto a ser percorrido, de onde vêm os pesos dos custos refeitos.
+	 * @param pesoDoPai True se cada passo da árvore da busca custa o peso da célula pai,
+	 * como na busca reversa do AgenteBusca; False se custa o peso da célula filha.
+	 */
+	public EspacoBuscaMapeado(Labirinto labirinto, boolean pesoDoPai) {
+		super(labirinto.getTamanho());
+		this.labirinto = labirinto;
+		this.pesoDoPai = pesoDoPai;
+		this.criarAbertas(ABERTAS_INICIAL);
+		this.mapear();
+		this.lembradas = new long[LEMBRADAS];
+		this.custosLembradas = new int[LEMBRADAS];
+		Arrays.fill(this.lembradas, VAZIA);
+	}
+
+	@Override
+	public boolean serve(Labirinto labirinto) {
+		return labirinto == this.labirinto && labirinto.getTamanho() == this.tamanho
+				&& precisaMapeado(labirinto);
+	}
+
+	@Override
+	protected void limpar() {
+		if(this.sujo)
+			this.mapear();
+		if(this.abertas.length > ABERTAS_INICIAL)
+			this.criarAbertas(ABERTAS_INICIAL);
+		else if(this.quantidadeAbertas > 0)
+			Arrays.fill(this.abertas, VAZIA);
+		this.quantidadeAbertas = 0;
+		this.visitadas = 0;
+		Arrays.fill(this.lembradas, VAZIA);
+	}
+
+	@Override
+	public FronteiraHeap criarHeap() {
+		return new FronteiraHeap();
+	}
+
+	@Override
+	public boolean descobrir(long celula, int custo, int acao) {
+		if(this.foiVisitada(celula))
+			return false;
+		int i = this.procurar(celula);
+		boolean nova = this.abertas[i] != celula;
+		if(!nova && this.custosAbertas[i] <= custo)
+			return false;
+
+		this.abertas[i] = celula;
+		this.custosAbertas[i] = custo;
+		this.acoesAbertas[i] = (byte) acao;
+		if(nova && ++this.quantidadeAbertas * 2 > this.abertas.length)
+			this.crescer();
+		return true;
+	}
+
+	@Override
+	public void visitar(long celula) {
+		if(this.foiVisitada(celula))
+			return;
+		int custo = 0;
+		int acao = -1;
+		int i = this.procurar(celula);
+		if(this.abertas[i] == celula) {
+			custo = this.custosAbertas[i];
+			acao = this.acoesAbertas[i];
+			this.retirar(i);
+		}
+		this.escrever(celula, VISITADA | (acao >= 0 ? COM_ACAO | acao : 0));
+		this.sujo = true;
+		this.visitadas++;
+		this.lembrar(celula, custo);
+	}
+
+	@Override
+	public boolean foiVisitada(long celula) {
+		return (this.ler(celula) & VISITADA) != 0;
+	}
+
+	@Override
+	public boolean foiDescoberta(long celula) {
+		return this.foiVisitada(celula) || this.abertas[this.procurar(celula)] == celula;
+	}
+
+	@Override
+	public int getCusto(long celula) {
+		int i = this.procurar(celula);
+		if(this.abertas[i] == celula)
+			return this.custosAbertas[i];
+		int custo = this.getCustoLembrado(celula);
+		if(custo < 0) {
+			custo = this.refazerCusto(celula);
+			this.lembrar(celula, custo);
+		}
+		return custo;
+	}
+
+	@Override
+	public int getAcao(long celula) {
+		int i = this.procurar(celula);
+		if(this.abertas[i] == celula)
+			return this.acoesAbertas[i];
+		int bits = this.ler(celula);
+		return (bits & COM_ACAO) != 0 ? bits & 3 : -1;
+	}
+
+	@Override
+	public Solucao construirSolucao(long celula) {
+		int passos = 0;
+		for(long c = celula; this.getAcao(c) >= 0; c = this.getPai(c))
+			passos++;
+
+		long[] caminho = new long[passos + 1];
+		long c = celula;
+		for(int i = passos; i >= 0; i--, c = this.getPai(c))
+			caminho[i] = c;
+
+		//Os custos são refeitos do início para o fim, um peso por passo
+		Solucao solucao = new Solucao((int) (caminho[0] % this.tamanho), (int) (caminho[0] / this.tamanho));
+		int custo = 0;
+		for(int i = 1; i <= passos; i++) {
+			custo += this.getPeso(this.pesoDoPai ? caminho[i - 1] : caminho[i]);
+			solucao = new Solucao((int) (caminho[i] % this.tamanho), (int) (caminho[i] / this.tamanho),
+					custo, this.getAcao(caminho[i]), solucao);
+		}
+		return solucao;
+	}
+
+	@Override
+	public long getQuantidadeVisitas() {
+		return this.visitadas;
+	}
+
+	@Override
+	public long getVisita(int i) {
+		throw new UnsupportedOperationException("O EspacoBuscaMapeado não guarda a ordem das visitas");
+	}
+
+	/*
+	 * Custo da célula visitada a partir de um filho lembrado, que custa um passo a mais,
+	 * ou somando os passos até a raiz ou até um ancestral lembrado
+	 */
+	private int refazerCusto(long celula) {
+		int x = (int) (celula % this.tamanho);
+		int y = (int) (celula / this.tamanho);
+		for(int sentido = 0; sentido < 4; sentido++) {
+			int xFilho = x + Labirinto.DX[sentido];
+			int yFilho = y + Labirinto.DY[sentido];
+			if(xFilho < 0 || yFilho < 0 || xFilho >= this.tamanho || yFilho >= this.tamanho)
+				continue;
+			long filho = (long) yFilho * this.tamanho + xFilho;
+			int custoFilho = this.getCustoLembrado(filho);
+			if(custoFilho >= 0 && this.getAcao(filho) == sentido)
+				return custoFilho - this.getPeso(this.pesoDoPai ? celula : filho);
+		}
+
+		int custo = 0;
+		for(int acao = this.getAcao(celula); acao >= 0; acao = this.getAcao(celula)) {
+			long pai = celula - Labirinto.DX[acao] - Labirinto.DY[acao] * this.tamanho;
+			custo += this.getPeso(this.pesoDoPai ? pai : celula);
+			int custoPai = this.getCustoLembrado(pai);
+			if(custoPai >= 0)
+				return custo + custoPai;
+			celula = pai;
+		}
+		return custo;
+	}
+
+	/*
+	 * Tabela dos custos lembrados, uma célula por posição: a mais recente substitui a anterior
+	 */
+	private void lembrar(long celula, int custo) {
+		int i = espalhar(celula) & (LEMBRADAS - 1);
+		this.lembradas[i] = celula;
+		this.custosLembradas[i] = custo;
+	}
+
+	private int getCustoLembrado(long celula) {
+		int i = espalhar(celula) & (LEMBRADAS - 1);
+		return this.lembradas[i] == celula ? this.custosLembradas[i] : -1;
+	}
+
+	private int getPeso(long celula) {
+		return this.labirinto.getPeso((int) (celula % this.tamanho), (int) (celula / this.tamanho));
+	}
+
+	/*
+	 * Cria um arquivo vazio e o mapeia. O mapeamento continua válido depois que o arquivo é
+	 * fechado e apagado; onde não é possível apagá-lo, ele é apagado ao fim da execução
+	 */
+	private void mapear() {
+		long bytes = Math.max(1, ((long) this.tamanho * this.tamanho + 1) >>> 1);
+		this.regioes = new MappedByteBuffer[0];
+		try {
+			File arquivo = File.createTempFile("busca", ".bin");
+			RandomAccessFile acesso = new RandomAccessFile(arquivo, "rw");
+			try {
+				acesso.setLength(bytes);
+				FileChannel canal = acesso.getChannel();
+				int quantidade = (int) ((bytes + REGIAO - 1) >>> BITS_REGIAO);
+				MappedByteBuffer[] mapeadas = new MappedByteBuffer[quantidade];
+				for(int i = 0; i < quantidade; i++) {
+					long inicio = (long) i << BITS_REGIAO;
+					mapeadas[i] = canal.map(FileChannel.MapMode.READ_WRITE, inicio, Math.min(REGIAO, bytes - inicio));
+				}
+				this.regioes = mapeadas;
+			} finally {
+				acesso.close();
+				if(!arquivo.delete())
+					arquivo.deleteOnExit();
+			}
+		} catch(IOException e) {
+			throw new IllegalStateException("Não foi possível mapear o arquivo da busca", e);
+		}
+		this.sujo = false;
+	}
+
+	/*
+	 * Acesso aos 4 bits da célula
+	 */
+	private int ler(long celula) {
+		long posicao = celula >>> 1;
+		int valor = this.regioes[(int) (posicao >>> BITS_REGIAO)].get((int) (posicao & (REGIAO - 1))) & 0xFF;
+		return valor >>> ((int) (celula & 1) << 2) & 0xF;
+	}
+
+	private void escrever(long celula, int bits) {
+		long posicao = celula >>> 1;
+		MappedByteBuffer regiao = this.regioes[(int) (posicao >>> BITS_REGIAO)];
+		int i = (int) (posicao & (REGIAO - 1));
+		int deslocamento = (int) (celula & 1) << 2;
+		regiao.put(i, (byte) (regiao.get(i) & ~(0xF << deslocamento) | bits << deslocamento));
+	}
+
+	/*
+	 * Tabela das células abertas
+	 */
+	private void criarAbertas(int capacidade) {
+		this.abertas = new long[capacidade];
+		this.custosAbertas = new int[capacidade];
+		this.acoesAbertas = new byte[capacidade];
+		Arrays.fill(this.abertas, VAZIA);
+	}
+
+	/*
+	 * Posição da CELULA na tabela ou, se ela não está aberta, a posição livre onde entraria
+	 */
+	private int procurar(long celula) {
+		int mascara = this.abertas.length - 1;
+		int i = espalhar(celula) & mascara;
+		while(this.abertas[i] != VAZIA && this.abertas[i] != celula)
+			i = (i + 1) & mascara;
+		return i;
+	}
+
+	/*
+	 * Remove a entrada I, deslocando para trás as entradas seguintes da mesma sequência de
+	 * sondagem, para que as buscas continuem sem lápides
+	 */
+	private void retirar(int i) {
+		int mascara = this.abertas.length - 1;
+		for(int j = (i + 1) & mascara; this.abertas[j] != VAZIA; j = (j + 1) & mascara) {
+			int k = espalhar(this.abertas[j]) & mascara;
+			//A entrada J fica se sua posição ideal K está entre I (exclusive) e J
+			if(i <= j ? (i < k && k <= j) : (i < k || k <= j))
+				continue;
+			this.abertas[i] = this.abertas[j];
+			this.custosAbertas[i] = this.custosAbertas[j];
+			this.acoesAbertas[i] = this.acoesAbertas[j];
+			i = j;
+		}
+		this.abertas[i] = VAZIA;
+		this.quantidadeAbertas--;
+	}
+
+	private void crescer() {
+		if(this.abertas.length == 1 << 30)
+			throw new IllegalStateException("A tabela de células abertas passou de " + (1 << 29) + " células");
+		long[] antigas = this.abertas;
+		int[] custos = this.custosAbertas;
+		byte[] acoes = this.acoesAbertas;
+		this.criarAbertas(antigas.length * 2);
+		for(int j = 0; j < antigas.length; j++) {
+			if(antigas[j] == VAZIA)
+				continue;
+			int i = this.procurar(antigas[j]);
+			this.abertas[i] = antigas[j];
+			this.custosAbertas[i] = custos[j];
+			this.acoesAbertas[i] = acoes[j];
+		}
+	}
+
+	private static int espalhar(long celula) {
+		//Os bits altos do produto dependem de todos os bits da célula
+		return (int) ((celula * 0x9E3779B97F4A7C15L) >>> 32);
+	}
+}
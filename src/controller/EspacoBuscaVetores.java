@@ -0,0 +1,118 @@
+package controller;
+
+import model.Labirinto;
+import model.Solucao;
+
+/**
+ * EspacoBuscaVetores
+ * Espaço de busca em vetores primitivos do heap, um valor por célula: o custo em um
+ * vetor de int, o sentido de chegada em um vetor de byte e as visitas e descobertas em
+ * RegistroVisitas, que limpam em O(1) pela época. Guarda também a ordem das visitas.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class EspacoBuscaVetores extends EspacoBusca {
+
+	private final int[] custos;
+	private final byte[] acoes;
+	private final RegistroVisitas visitas;
+	private final RegistroVisitas descobertas;
+
+	/**
+	 * Construtor padrão.
+	 * @param tamanho Tamanho N do labirinto (NxN células).
+	 * @throws IllegalArgumentException Se as células não cabem em um vetor.
+	 */
+	public EspacoBuscaVetores(int tamanho) {
+		super(tamanho);
+		int celulas = RegistroVisitas.contarCelulas(tamanho);
+		this.custos = new int[celulas];
+		this.acoes = new byte[celulas];
+		this.visitas = new RegistroVisitas(celulas);
+		this.descobertas = new RegistroVisitas(celulas, false);
+	}
+
+	@Override
+	public boolean serve(Labirinto labirinto) {
+		return labirinto.getTamanho() == this.tamanho && !precisaMapeado(labirinto);
+	}
+
+	@Override
+	protected void limpar() {
+		this.visitas.limpar();
+		this.descobertas.limpar();
+	}
+
+	@Override
+	public FronteiraHeap criarHeap() {
+		return new FronteiraHeap(this.custos.length);
+	}
+
+	@Override
+	public boolean descobrir(long celula, int custo, int acao) {
+		int c = (int) celula;
+		if(this.visitas.foiVisitada(c))
+			return false;
+		if(this.descobertas.foiVisitada(c) && this.custos[c] <= custo)
+			return false;
+
+		this.descobertas.visitar(c);
+		this.custos[c] = custo;
+		this.acoes[c] = (byte) acao;
+		return true;
+	}
+
+	@Override
+	public void visitar(long celula) {
+		this.visitas.visitar((int) celula);
+	}
+
+	@Override
+	public boolean foiVisitada(long celula) {
+		return this.visitas.foiVisitada((int) celula);
+	}
+
+	@Override
+	public boolean foiDescoberta(long celula) {
+		return this.descobertas.foiVisitada((int) celula);
+	}
+
+	@Override
+	public int getCusto(long celula) {
+		return this.custos[(int) celula];
+	}
+
+	@Override
+	public int getAcao(long celula) {
+		return this.acoes[(int) celula];
+	}
+
+	@Override
+	public Solucao construirSolucao(long celula) {
+		int passos = 0;
+		for(int c = (int) celula; this.acoes[c] >= 0; c = (int) this.getPai(c))
+			passos++;
+
+		int[] caminho = new int[passos + 1];
+		for(int i = passos, c = (int) celula; i >= 0; i--, c = (int) this.getPai(c))
+			caminho[i] = c;
+
+		Solucao solucao = new Solucao(caminho[0] % this.tamanho, caminho[0] / this.tamanho);
+		for(int i = 1; i <= passos; i++) {
+			int c = caminho[i];
+			solucao = new Solucao(c % this.tamanho, c / this.tamanho, this.custos[c], this.acoes[c], solucao);
+		}
+		return solucao;
+	}
+
+	@Override
+	public long getQuantidadeVisitas() {
+		return this.visitas.getQuantidade();
+	}
+
+	@Override
+	public long getVisita(int i) {
+		return this.visitas.getVisita(i);
+	}
+}
@@ -0,0 +1,61 @@
+package controller;
+
+/**
+ * Fronteira
+ * Estrutura que guarda as células a serem visitadas por uma busca. Cada tipo de
+ * busca usa a fronteira que melhor atende sua ordem de seleção, escolhida uma
+ * única vez no início da busca:
+ *
+ * FronteiraHeap ~> retira a célula de menor chave (A Estrela, Gulosa)
+ * FronteiraDeque ~> retira a célula mais antiga (fila) ou mais recente (pilha)
+ * FronteiraBaldes ~> retira a célula de menor chave inteira em O(1) (labirintos com pesos)
+ *
+ * As células são identificadas pelo índice Y * TAMANHO + X, em long para que labirintos
+ * de mais de 2^31 células possam ser percorridos.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public abstract class Fronteira {
+
+	/**
+	 * Adiciona a célula a fronteira. Fronteiras ordenadas que já contém a célula
+	 * apenas atualizam sua chave, caso a nova seja melhor.
+	 * @param celula Índice da célula.
+	 * @param chave Prioridade da célula, menor é melhor. Ignorada por fronteiras não ordenadas.
+	 * @param custo Custo acumulado até a célula, usado como desempate (maior custo primeiro).
+	 */
+	public abstract void adicionar(long celula, double chave, int custo);
+
+	/**
+	 * Seleciona e retira a próxima célula a ser visitada.
+	 * @return Índice da célula.
+	 */
+	public abstract long remover();
+
+	/**
+	 * Retorna a célula na posição I da estrutura interna, sem retirá-la.
+	 * @param i Posição entre 0 e tamanho() - 1.
+	 * @return Índice da célula.
+	 */
+	public abstract long get(int i);
+
+	/**
+	 * Retorna o número de células na fronteira.
+	 * @return Número de células.
+	 */
+	public abstract int tamanho();
+
+	/**
+	 * Retira todas as células da fronteira, mantendo a memória alocada para reuso.
+	 */
+	public abstract void limpar();
+
+	/**
+	 * Verifica se a fronteira está vazia.
+	 * @return True se não há células na fronteira.
+	 */
+	public boolean isVazia() {
+		return this.tamanho() == 0;
+	}
+}
@@ -0,0 +1,137 @@
+package controller;
+
+import java.util.Arrays;
+
+/**
+ * FronteiraBaldes
+ * Fronteira ordenada por chaves inteiras implementada como uma fila de baldes
+ * (algoritmo de Dial): cada balde guarda as células de uma mesma chave e os baldes
+ * formam um anel que acompanha a menor chave da fronteira.
+ *
+ * Serve as buscas cujas chaves nunca diminuem, como o custo de Dijkstra em um
+ * labirinto com pesos inteiros ou o F de A Estrela com heurística consistente. Como a
+ * chave de uma célula descoberta passa da menor chave no máximo pelo maior peso (mais
+ * a variação da heurística), o anel tem poucos baldes e inserir e remover custam O(1);
+ * a busca inteira custa O(V + C), sendo C o custo da solução.
+ *
+ * As chaves são truncadas para inteiro; chaves menores que a da última célula retirada,
+ * ou que a da primeira célula adicionada, são tratadas como ela. Com custos G inteiros,
+ * truncar F = G + H é o mesmo que usar a heurística arredondada para baixo, que continua
+ * admissível e consistente: A Estrela segue encontrando o menor caminho, e só se perde a
+ * ordem entre células de mesmo G + piso(H), como com a HeuristicaEuclidiana. Dentro de
+ * um balde a célula mais recente sai primeiro, o que favorece as células mais profundas
+ * como o desempate da FronteiraHeap.
+ *
+ * Uma célula pode ser adicionada mais de uma vez; cabe a busca ignorar as
+ * células já visitadas ao retirá-las.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class FronteiraBaldes extends Fronteira {
+
+	/*
+	 * baldes, quantidades ~> células e número de células de cada balde do anel
+	 * mascara ~> número de baldes - 1 (potência de 2)
+	 * minimo ~> chave da última célula retirada; nenhuma célula da fronteira tem chave menor
+	 * iniciada ~> False até a primeira célula após limpar, que define o MINIMO inicial
+	 */
+	private long[][] baldes;
+	private int[] quantidades;
+	private int mascara;
+	private long minimo;
+	private boolean iniciada;
+	private int tamanho;
+
+	/**
+	 * Construtor padrão.
+	 * @param amplitude Maior diferença esperada entre duas chaves da fronteira; o anel
+	 * cresce se ela for ultrapassada.
+	 */
+	public FronteiraBaldes(int amplitude) {
+		int baldes = Integer.highestOneBit(Math.max(amplitude, 1)) << 1;
+		this.baldes = new long[baldes][];
+		this.quantidades = new int[baldes];
+		this.mascara = baldes - 1;
+		this.tamanho = 0;
+	}
+
+	@Override
+	public void adicionar(long celula, double chave, int custo) {
+		long k = (long) chave;
+		if(!this.iniciada) {
+			this.minimo = k;
+			this.iniciada = true;
+		} else if(k < this.minimo)
+			k = this.minimo;
+		else if(k - this.minimo > this.mascara)
+			this.crescer(k - this.minimo);
+		this.colocar((int) (k & this.mascara), celula);
+		this.tamanho++;
+	}
+
+	@Override
+	public long remover() {
+		int b = (int) (this.minimo & this.mascara);
+		while(this.quantidades[b] == 0) {
+			this.minimo++;
+			b = (b + 1) & this.mascara;
+		}
+		this.tamanho--;
+		return this.baldes[b][--this.quantidades[b]];
+	}
+
+	@Override
+	public long get(int i) {
+		for(int d = 0; ; d++) {
+			int b = (int) ((this.minimo + d) & this.mascara);
+			int quantidade = this.quantidades[b];
+			if(i < quantidade)
+				return this.baldes[b][quantidade - 1 - i];
+			i -= quantidade;
+		}
+	}
+
+	@Override
+	public int tamanho() {
+		return this.tamanho;
+	}
+
+	@Override
+	public void limpar() {
+		Arrays.fill(this.quantidades, 0);
+		this.tamanho = 0;
+		this.iniciada = false;
+	}
+
+	private void colocar(int b, long celula) {
+		long[] balde = this.baldes[b];
+		int quantidade = this.quantidades[b];
+		if(balde == null)
+			balde = this.baldes[b] = new long[16];
+		else if(quantidade == balde.length)
+			balde = this.baldes[b] = Arrays.copyOf(balde, quantidade * 2);
+		balde[quantidade] = celula;
+		this.quantidades[b] = quantidade + 1;
+	}
+
+	/*
+	 * Aumenta o anel para comportar a diferença AMPLITUDE a partir da menor chave,
+	 * recolocando cada balde na posição de sua chave
+	 */
+	private void crescer(long amplitude) {
+		long[][] antigos = this.baldes;
+		int[] quantidades = this.quantidades;
+		int mascara = this.mascara;
+		int baldes = Integer.highestOneBit((int) Math.min(amplitude, 1 << 29)) << 1;
+		this.baldes = new long[baldes][];
+		this.quantidades = new int[baldes];
+		this.mascara = baldes - 1;
+		for(int d = 0; d <= mascara; d++) {
+			int b = (int) ((this.minimo + d) & mascara);
+			int novo = (int) ((this.minimo + d) & this.mascara);
+			this.baldes[novo] = antigos[b];
+			this.quantidades[novo] = quantidades[b];
+		}
+	}
+}
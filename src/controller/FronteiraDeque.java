@@ -0,0 +1,88 @@
+package controller;
+
+/**
+ * FronteiraDeque
+ * Fronteira não ordenada implementada como um buffer circular de índices de células.
+ * Como FILA retira a célula mais antiga (Amplitude); como PILHA retira a mais
+ * recente (Profundidade). Todas as operações custam O(1) amortizado.
+ *
+ * Uma célula pode ser adicionada mais de uma vez; cabe a busca ignorar as
+ * células já visitadas ao retirá-las.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class FronteiraDeque extends Fronteira {
+
+	private long[] celulas;
+	private int inicio;
+	private int tamanho;
+	private final boolean pilha;
+
+	/**
+	 * Construtor padrão.
+	 * @param pilha True para retirar a célula mais recente, False para a mais antiga.
+	 */
+	public FronteiraDeque(boolean pilha) {
+		this.celulas = new long[64];
+		this.inicio = 0;
+		this.tamanho = 0;
+		this.pilha = pilha;
+	}
+
+	@Override
+	public void adicionar(long celula, double chave, int custo) {
+		if(this.tamanho == this.celulas.length)
+			this.crescer();
+		this.celulas[(this.inicio + this.tamanho++) & (this.celulas.length - 1)] = celula;
+	}
+
+	@Override
+	public long remover() {
+		long celula;
+		if(this.pilha) {
+			celula = this.celulas[(this.inicio + --this.tamanho) & (this.celulas.length - 1)];
+		} else {
+			celula = this.celulas[this.inicio];
+			this.inicio = (this.inicio + 1) & (this.celulas.length - 1);
+			this.tamanho--;
+		}
+		return celula;
+	}
+
+	@Override
+	public long get(int i) {
+		return this.celulas[(this.inicio + i) & (this.celulas.length - 1)];
+	}
+
+	@Override
+	public int tamanho() {
+		return this.tamanho;
+	}
+
+	@Override
+	public void limpar() {
+		this.inicio = 0;
+		this.tamanho = 0;
+	}
+
+	/**
+	 * Verifica se a fronteira retira a célula mais recente.
+	 * @return True se a fronteira é uma pilha, False se é uma fila.
+	 */
+	public boolean isPilha() {
+		return this.pilha;
+	}
+
+	/*
+	 * Dobra a capacidade (sempre potência de 2), desenrolando o buffer circular
+	 */
+	private void crescer() {
+		long[] maior = new long[this.celulas.length * 2];
+		int primeiros = Math.min(this.tamanho, this.celulas.length - this.inicio);
+		System.arraycopy(this.celulas, this.inicio, maior, 0, primeiros);
+		System.arraycopy(this.celulas, 0, maior, primeiros, this.tamanho - primeiros);
+		this.celulas = maior;
+		this.inicio = 0;
+	}
+}
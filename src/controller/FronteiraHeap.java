@@ -0,0 +1,241 @@
+package controller;
+
+import java.util.Arrays;
+
+/**
+ * FronteiraHeap
+ * Fronteira ordenada implementada como um heap binário indexado pela célula.
+ * Cada célula aparece no máximo uma vez: adicionar uma célula que já está no
+ * heap com chave melhor apenas diminui sua chave (decrease-key).
+ *
+ * O índice de posições ocupa um inteiro por célula do labirinto. Sem ele
+ * (construtor padrão), para labirintos que não cabem no heap, a fronteira ocupa
+ * memória apenas pelas entradas: adicionar sempre insere uma nova entrada, e cabe a
+ * busca ignorar as células já visitadas ao retirá-las, como na FronteiraDeque.
+ *
+ * Empates de chave são resolvidos a favor do maior custo, ou seja, da célula
+ * mais próxima do objetivo segundo a heurística.
+ *
+ * Inserção, remoção e atualização custam O(log n).
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class FronteiraHeap extends Fronteira {
+
+	private static final int MAXIMO_VETOR = Integer.MAX_VALUE - 8;
+
+	/*
+	 * heap ~> células na ordem do heap
+	 * chaves, custos ~> chave e custo de cada posição do heap
+	 * posicao ~> posição de cada célula no heap, -1 se ausente; NULO sem índice
+	 */
+	private long[] heap;
+	private double[] chaves;
+	private int[] custos;
+	private int[] posicao;
+	private int tamanho;
+
+	/**
+	 * Construtor parametrizado, com índice de posições.
+	 * @param celulas Número de células do labirinto.
+	 */
+	public FronteiraHeap(int celulas) {
+		int capacidade = Math.max(16, Math.min(celulas, 1024));
+		this.heap = new long[capacidade];
+		this.chaves = new double[capacidade];
+		this.custos = new int[capacidade];
+		this.posicao = new int[celulas];
+		Arrays.fill(this.posicao, -1);
+		this.tamanho = 0;
+	}
+
+	/**
+	 * Construtor padrão, sem índice de posições: uma célula pode ser adicionada mais
+	 * de uma vez, e contem, atualizar e retirar não podem ser usados.
+	 */
+	public FronteiraHeap() {
+		this.heap = new long[1024];
+		this.chaves = new double[1024];
+		this.custos = new int[1024];
+		this.posicao = null;
+		this.tamanho = 0;
+	}
+
+	@Override
+	public void adicionar(long celula, double chave, int custo) {
+		int i = this.posicao == null ? -1 : this.posicao[(int) celula];
+		if(i >= 0) {
+			if(!this.antes(chave, custo, this.chaves[i], this.custos[i]))
+				return;
+		} else {
+			if(this.tamanho == this.heap.length)
+				this.crescer();
+			i = this.tamanho++;
+			this.heap[i] = celula;
+		}
+		this.chaves[i] = chave;
+		this.custos[i] = custo;
+		this.subir(i);
+	}
+
+	@Override
+	public long remover() {
+		long celula = this.heap[0];
+		if(this.posicao != null)
+			this.posicao[(int) celula] = -1;
+		this.tamanho--;
+		if(this.tamanho > 0) {
+			this.mover(this.tamanho, 0);
+			this.descer(0);
+		}
+		return celula;
+	}
+
+	/**
+	 * Retorna a chave da próxima célula a ser retirada, sem retirá-la.
+	 * @return Menor chave da fronteira.
+	 */
+	public double getChaveMinima() {
+		return this.chaves[0];
+	}
+
+	/**
+	 * Retorna o custo (desempate) da próxima célula a ser retirada, sem retirá-la.
+	 * @return Custo associado a menor chave da fronteira.
+	 */
+	public int getCustoMinimo() {
+		return this.custos[0];
+	}
+
+	/**
+	 * Verifica se a célula está na fronteira.
+	 * @param celula Índice da célula.
+	 * @return True se a célula está no heap.
+	 */
+	public boolean contem(int celula) {
+		return this.getIndice()[celula] >= 0;
+	}
+
+	/**
+	 * Adiciona a célula ou substitui sua chave, mesmo que a nova seja pior.
+	 * @param celula Índice da célula.
+	 * @param chave Nova prioridade da célula, menor é melhor.
+	 * @param custo Novo custo da célula, usado como desempate (maior custo primeiro).
+	 */
+	public void atualizar(int celula, double chave, int custo) {
+		int i = this.getIndice()[celula];
+		if(i < 0) {
+			this.adicionar(celula, chave, custo);
+			return;
+		}
+		this.chaves[i] = chave;
+		this.custos[i] = custo;
+		this.subir(i);
+		this.descer(this.posicao[celula]);
+	}
+
+	/**
+	 * Retira a célula da fronteira, caso esteja nela.
+	 * @param celula Índice da célula.
+	 */
+	public void retirar(int celula) {
+		int i = this.getIndice()[celula];
+		if(i < 0)
+			return;
+		this.posicao[celula] = -1;
+		this.tamanho--;
+		if(i < this.tamanho) {
+			int movida = (int) this.heap[this.tamanho];
+			this.mover(this.tamanho, i);
+			this.subir(i);
+			this.descer(this.posicao[movida]);
+		}
+	}
+
+	@Override
+	public long get(int i) {
+		return this.heap[i];
+	}
+
+	@Override
+	public int tamanho() {
+		return this.tamanho;
+	}
+
+	@Override
+	public void limpar() {
+		if(this.posicao != null)
+			for(int i = 0; i < this.tamanho; i++)
+				this.posicao[(int) this.heap[i]] = -1;
+		this.tamanho = 0;
+	}
+
+	private int[] getIndice() {
+		if(this.posicao == null)
+			throw new IllegalStateException("Fronteira sem índice de posições");
+		return this.posicao;
+	}
+
+	/*
+	 * Operações do heap
+	 */
+	private boolean antes(double chaveA, int custoA, double chaveB, int custoB) {
+		return chaveA < chaveB || (chaveA == chaveB && custoA > custoB);
+	}
+
+	private void subir(int i) {
+		long celula = this.heap[i];
+		double chave = this.chaves[i];
+		int custo = this.custos[i];
+		while(i > 0) {
+			int pai = (i - 1) >>> 1;
+			if(!this.antes(chave, custo, this.chaves[pai], this.custos[pai]))
+				break;
+			this.mover(pai, i);
+			i = pai;
+		}
+		this.colocar(i, celula, chave, custo);
+	}
+
+	private void descer(int i) {
+		long celula = this.heap[i];
+		double chave = this.chaves[i];
+		int custo = this.custos[i];
+		int metade = this.tamanho >>> 1;
+		while(i < metade) {
+			int filho = 2 * i + 1;
+			int direito = filho + 1;
+			if(direito < this.tamanho && this.antes(this.chaves[direito], this.custos[direito], this.chaves[filho], this.custos[filho]))
+				filho = direito;
+			if(!this.antes(this.chaves[filho], this.custos[filho], chave, custo))
+				break;
+			this.mover(filho, i);
+			i = filho;
+		}
+		this.colocar(i, celula, chave, custo);
+	}
+
+	private void mover(int de, int para) {
+		this.colocar(para, this.heap[de], this.chaves[de], this.custos[de]);
+	}
+
+	private void colocar(int i, long celula, double chave, int custo) {
+		this.heap[i] = celula;
+		this.chaves[i] = chave;
+		this.custos[i] = custo;
+		if(this.posicao != null)
+			this.posicao[(int) celula] = i;
+	}
+
+	private void crescer() {
+		if(this.heap.length == MAXIMO_VETOR)
+			throw new IllegalStateException("A fronteira passou de " + MAXIMO_VETOR + " entradas");
+		int capacidade = (int) Math.min(MAXIMO_VETOR, this.heap.length * 2L);
+		if(this.posicao != null)
+			capacidade = Math.min(this.posicao.length, capacidade);
+		this.heap = Arrays.copyOf(this.heap, capacidade);
+		this.chaves = Arrays.copyOf(this.chaves, capacidade);
+		this.custos = Arrays.copyOf(this.custos, capacidade);
+	}
+}
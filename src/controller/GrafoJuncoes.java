@@ -0,0 +1,211 @@
+package controller;
+
+import model.Labirinto;
+import model.Solucao;
+
+/**
+ * GrafoJuncoes
+ * Grafo comprimido de um labirinto: os NÓS são as células que não são corredor
+ * (bifurcações e becos, ou seja, células sem exatamente duas passagens) e cada
+ * ARESTA é um corredor entre dois nós, com peso igual ao seu número de passos.
+ *
+ * A adjacência é guardada em formato CSR (linhas comprimidas): as arestas do nó U
+ * ocupam as posições inicio[U] até inicio[U + 1] - 1 dos vetores:
+ *
+ * destinos ~> nó ao fim do corredor;
+ * pesos ~> número de passos do corredor;
+ * sentidos ~> sentido do primeiro passo a partir de U. As células do corredor não são
+ * 				guardadas: como cada célula de corredor tem uma única saída além da
+ * 				entrada, o corredor é percorrido novamente quando o caminho é expandido.
+ *
+ * O grafo é apenas lido pelas buscas (BuscaJuncoes) e pode ser compartilhado entre
+ * threads. Ele não acompanha alterações do labirinto e deve ser montado novamente se
+ * alguma parede mudar.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class GrafoJuncoes {
+
+	private final Labirinto labirinto;
+	private final int tamanho;
+	private final int[] nos;
+	private final int[] celulas;
+	private final int[] inicio;
+	private final int[] destinos;
+	private final int[] pesos;
+	private final byte[] sentidos;
+
+	/**
+	 * Monta o grafo do labirinto em O(N²).
+	 * @param labirinto Labirinto a ser comprimido.
+	 * @throws IllegalArgumentException Se as células do labirinto não cabem em um vetor.
+	 */
+	public GrafoJuncoes(Labirinto labirinto) {
+		int tamanho = labirinto.getTamanho();
+		this.labirinto = labirinto;
+		this.tamanho = tamanho;
+		this.nos = new int[RegistroVisitas.contarCelulas(tamanho)];
+
+		//Numera os nós e conta suas arestas
+		int quantidade = 0;
+		int arestas = 0;
+		for(int c = 0; c < this.nos.length; c++) {
+			int grau = this.grau(c);
+			if(grau == 2) {
+				this.nos[c] = -1;
+			} else {
+				this.nos[c] = quantidade++;
+				arestas += grau;
+			}
+		}
+
+		this.celulas = new int[quantidade];
+		this.inicio = new int[quantidade + 1];
+		this.destinos = new int[arestas];
+		this.pesos = new int[arestas];
+		this.sentidos = new byte[arestas];
+
+		//Percorre cada corredor a partir de cada uma de suas pontas
+		int[] fim = new int[2];
+		int e = 0;
+		for(int c = 0; c < this.nos.length; c++) {
+			int no = this.nos[c];
+			if(no < 0)
+				continue;
+			this.celulas[no] = c;
+			this.inicio[no] = e;
+			int x = c % tamanho;
+			int y = c / tamanho;
+			for(int i = 0; i < 4; i++) {
+				if(!labirinto.movimentoValido(x, y, i))
+					continue;
+				int destino = this.percorrer(c, i, -1, fim);
+				this.destinos[e] = this.nos[destino];
+				this.pesos[e] = fim[0];
+				this.sentidos[e] = (byte) i;
+				e++;
+			}
+		}
+		this.inicio[quantidade] = e;
+	}
+
+	/**
+	 * Retorna o número de nós (bifurcações e becos) do grafo.
+	 * @return Número de nós.
+	 */
+	public int getNos() {
+		return this.celulas.length;
+	}
+
+	/**
+	 * Retorna o número de arestas do grafo. Cada corredor conta uma vez em cada sentido.
+	 * @return Número de arestas.
+	 */
+	public int getArestas() {
+		return this.destinos.length;
+	}
+
+	public Labirinto getLabirinto() {
+		return labirinto;
+	}
+
+	public int getTamanho() {
+		return tamanho;
+	}
+
+	/*
+	 * Acesso ao grafo pelas buscas
+	 */
+	int getNo(int celula) {
+		return this.nos[celula];
+	}
+
+	int getCelula(int no) {
+		return this.celulas[no];
+	}
+
+	int getInicio(int no) {
+		return this.inicio[no];
+	}
+
+	int getDestino(int aresta) {
+		return this.destinos[aresta];
+	}
+
+	int getPeso(int aresta) {
+		return this.pesos[aresta];
+	}
+
+	int getSentido(int aresta) {
+		return this.sentidos[aresta];
+	}
+
+	/**
+	 * Anda a partir da CELULA no SENTIDO indicado, seguindo o corredor, até chegar a um nó,
+	 * a célula PARADA ou de volta a CELULA (corredor fechado em ciclo).
+	 * @param celula Índice da célula de partida.
+	 * @param sentido Sentido do primeiro passo.
+	 * @param parada Índice de uma célula de corredor onde parar, ou -1.
+	 * @param fim Recebe o número de passos em FIM[0] e o sentido do último passo em FIM[1].
+	 * @return Índice da célula onde a caminhada parou.
+	 */
+	int percorrer(int celula, int sentido, int parada, int[] fim) {
+		int c = celula;
+		int passos = 0;
+		while(true) {
+			c += Labirinto.DX[sentido] + Labirinto.DY[sentido] * this.tamanho;
+			passos++;
+			if(c == parada || c == celula || this.nos[c] >= 0)
+				break;
+			sentido = this.saida(c, sentido);
+		}
+		fim[0] = passos;
+		fim[1] = sentido;
+		return c;
+	}
+
+	/**
+	 * Estende a SOLUCAO, que termina na CELULA, com os passos de percorrer.
+	 * @param solucao Solução que termina na CELULA.
+	 * @param celula Índice da célula de partida.
+	 * @param sentido Sentido do primeiro passo.
+	 * @param parada Índice de uma célula de corredor onde parar, ou -1.
+	 * @return Solução que termina onde a caminhada parou.
+	 */
+	Solucao estender(Solucao solucao, int celula, int sentido, int parada) {
+		int c = celula;
+		while(true) {
+			c += Labirinto.DX[sentido] + Labirinto.DY[sentido] * this.tamanho;
+			solucao = new Solucao(c % this.tamanho, c / this.tamanho, solucao.getCusto() + 1, sentido, solucao);
+			if(c == parada || c == celula || this.nos[c] >= 0)
+				return solucao;
+			sentido = this.saida(c, sentido);
+		}
+	}
+
+	/*
+	 * Sentido da única passagem de uma célula de corredor que não é a de CHEGADA
+	 */
+	private int saida(int celula, int chegada) {
+		int x = celula % this.tamanho;
+		int y = celula / this.tamanho;
+		int entrada = Labirinto.OPOSTO[chegada];
+		for(int i = 0; i < 4; i++) {
+			if(i != entrada && this.labirinto.movimentoValido(x, y, i))
+				return i;
+		}
+		throw new IllegalStateException("Célula " + x + ", " + y + " não é corredor");
+	}
+
+	private int grau(int celula) {
+		int x = celula % this.tamanho;
+		int y = celula / this.tamanho;
+		int grau = 0;
+		for(int i = 0; i < 4; i++) {
+			if(this.labirinto.movimentoValido(x, y, i))
+				grau++;
+		}
+		return grau;
+	}
+}
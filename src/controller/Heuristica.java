@@ -0,0 +1,29 @@
+package controller;
+
+/**
+ * Heuristica
+ * Estimativa do custo de uma CELULA X, Y até o OBJETIVO, usada pelas buscas informadas
+ * (A Estrela, Gulosa, Bidirecional). Para que a A Estrela encontre o menor caminho a
+ * estimativa nunca deve superar o custo real; para que cada célula seja expandida uma
+ * única vez ela também deve ser consistente (a estimativa de uma célula não supera o
+ * custo de um passo mais a estimativa da vizinha).
+ *
+ * HeuristicaEuclidiana ~> distância em linha reta (padrão);
+ * HeuristicaManhattan ~> soma das distâncias em X e Y, inteira e mais justa num grid;
+ * HeuristicaMarcos ~> distâncias reais pré-calculadas a partir de marcos (ALT).
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public interface Heuristica {
+
+	/**
+	 * Estima o custo da célula X, Y até a célula OBJETIVOX, OBJETIVOY.
+	 * @param x Posição X da célula no labirinto
+	 * @param y Posição y da célula no labirinto
+	 * @param objetivoX Posição X do objetivo
+	 * @param objetivoY Posição Y do objetivo
+	 * @return Estimativa do custo, nunca maior que o custo real.
+	 */
+	double estimar(int x, int y, int objetivoX, int objetivoY);
+}
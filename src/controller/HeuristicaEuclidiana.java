@@ -0,0 +1,32 @@
+package controller;
+
+/**
+ * HeuristicaEuclidiana
+ * Distância em linha reta até o objetivo. É a heurística original do agente, mas
+ * subestima muito o custo num labirinto, onde o caminho real raramente é reto.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class HeuristicaEuclidiana implements Heuristica {
+
+	@Override
+	public double estimar(int x, int y, int objetivoX, int objetivoY) {
+		double dx = x - objetivoX;
+		double dy = y - objetivoY;
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+
+	/*
+	 * Sem estado: todas as instâncias são equivalentes, por exemplo como chave do CacheCaminhos
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof HeuristicaEuclidiana;
+	}
+
+	@Override
+	public int hashCode() {
+		return HeuristicaEuclidiana.class.hashCode();
+	}
+}
@@ -0,0 +1,31 @@
+package controller;
+
+/**
+ * HeuristicaManhattan
+ * Soma das distâncias em X e em Y até o objetivo. Como o agente só anda nos sentidos
+ * N, S, L e O, com custo 1 por passo, ela é consistente e nunca menor que a euclidiana,
+ * além de dispensar a raiz quadrada.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class HeuristicaManhattan implements Heuristica {
+
+	@Override
+	public double estimar(int x, int y, int objetivoX, int objetivoY) {
+		return Math.abs(x - objetivoX) + Math.abs(y - objetivoY);
+	}
+
+	/*
+	 * Sem estado: todas as instâncias são equivalentes, por exemplo como chave do CacheCaminhos
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof HeuristicaManhattan;
+	}
+
+	@Override
+	public int hashCode() {
+		return HeuristicaManhattan.class.hashCode();
+	}
+}
@@ -0,0 +1,122 @@
+package controller;
+
+import model.Labirinto;
+
+/**
+ * HeuristicaMarcos
+ * Heurística ALT (A Estrela, Marcos e desigualdade Triangular). Para K células MARCO
+ * são pré-calculadas, por busca em amplitude, as distâncias reais até todas as células.
+ * Pela desigualdade triangular, para qualquer marco M:
+ *
+ * dist(V, OBJETIVO) >= | dist(M, OBJETIVO) - dist(M, V) |
+ *
+ * e a estimativa é o maior desses limites entre os marcos. Ela é consistente e, num
+ * labirinto, muito mais justa que as distâncias geométricas.
+ *
+ * Os marcos são escolhidos pelo ponto mais distante: o primeiro é a célula mais distante
+ * de 0, 0 e cada novo marco é a célula cuja menor distância aos marcos já escolhidos é
+ * a maior. A memória ocupada é de K inteiros por célula.
+ *
+ * As distâncias só valem para as paredes com que foram calculadas: estimar depois de
+ * uma alteração de parede lança IllegalStateException. Alterar pesos não a invalida
+ * (Labirinto.getVersaoParedes), pois com pesos de no mínimo 1 a distância em passos
+ * continua sendo um limite inferior do custo.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class HeuristicaMarcos implements Heuristica {
+
+	private final Labirinto labirinto;
+	private final long versao;
+	private final int tamanho;
+	private final int[][] distancias;
+	private final int[] marcos;
+
+	/**
+	 * Construtor parametrizado.
+	 * @param labirinto Labirinto cujas distâncias serão pré-calculadas.
+	 * @param quantidade Número K de marcos.
+	 * @throws IllegalArgumentException Se as células do labirinto não cabem em um vetor.
+	 */
+	public HeuristicaMarcos(Labirinto labirinto, int quantidade) {
+		int tamanho = labirinto.getTamanho();
+		int celulas = RegistroVisitas.contarCelulas(tamanho);
+		this.labirinto = labirinto;
+		this.versao = labirinto.getVersaoParedes();
+		this.tamanho = tamanho;
+		this.distancias = new int[quantidade][];
+		this.marcos = new int[quantidade];
+
+		BuscaParalela busca = new BuscaParalela();
+		try {
+			int[] origem = busca.calcular(labirinto, 0, 0).getDistancias();
+			int[] menores = origem;
+			for(int k = 0; k < quantidade; k++) {
+				int marco = 0;
+				for(int c = 1; c < celulas; c++) {
+					if(menores[c] > menores[marco])
+						marco = c;
+				}
+				this.marcos[k] = marco;
+				this.distancias[k] = busca.calcular(labirinto, marco % tamanho, marco / tamanho).getDistancias();
+
+				//Menor distância de cada célula aos marcos escolhidos
+				if(k == 0)
+					menores = this.distancias[0].clone();
+				else
+					for(int c = 0; c < celulas; c++)
+						menores[c] = Math.min(menores[c], this.distancias[k][c]);
+			}
+		} finally {
+			busca.close();
+		}
+	}
+
+	/**
+	 * Construtor padrão, com 8 marcos.
+	 * @param labirinto Labirinto cujas distâncias serão pré-calculadas.
+	 */
+	public HeuristicaMarcos(Labirinto labirinto) {
+		this(labirinto, 8);
+	}
+
+	@Override
+	public double estimar(int x, int y, int objetivoX, int objetivoY) {
+		if(this.labirinto.getVersaoParedes() != this.versao)
+			throw new IllegalStateException("As paredes foram alteradas depois do cálculo dos marcos");
+
+		int celula = y * this.tamanho + x;
+		int objetivo = objetivoY * this.tamanho + objetivoX;
+		int melhor = 0;
+		for(int k = 0; k < this.distancias.length; k++) {
+			int[] distancia = this.distancias[k];
+			int dc = distancia[celula];
+			int dobj = distancia[objetivo];
+			//Células fora do componente do marco não dão limite algum
+			if(dc < 0 || dobj < 0)
+				continue;
+			int limite = Math.abs(dobj - dc);
+			if(limite > melhor)
+				melhor = limite;
+		}
+		return melhor;
+	}
+
+	/**
+	 * Retorna as posições X, Y dos marcos escolhidos.
+	 * @return Vetor de posições dos marcos.
+	 */
+	public int[][] getMarcos() {
+		int[][] posicoes = new int[this.marcos.length][];
+		for(int k = 0; k < this.marcos.length; k++) {
+			int[] posicao = {this.marcos[k] % this.tamanho, this.marcos[k] / this.tamanho};
+			posicoes[k] = posicao;
+		}
+		return posicoes;
+	}
+
+	public Labirinto getLabirinto() {
+		return labirinto;
+	}
+}
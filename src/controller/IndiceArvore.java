@@ -0,0 +1,182 @@
+package controller;
+
+import model.Labirinto;
+import model.Solucao;
+
+/**
+ * IndiceArvore
+ * Índice para consultas de caminho entre quaisquer duas células de um labirinto
+ * perfeito, ou seja, cujas passagens formam uma árvore geradora (como os gerados
+ * por gerarLabirintoRecursivo e gerarLabirintoHuntandKill). Numa árvore o único
+ * caminho entre duas células passa pelo seu ancestral comum mais próximo (LCA).
+ *
+ * O índice é montado uma única vez, em O(N²), por uma busca em amplitude a partir
+ * da célula 0, 0, guardando para cada célula:
+ *
+ * sentidos ~> sentido do movimento que leva do pai até a célula, -1 na raiz;
+ * profundidades ~> distância até a raiz;
+ * saltos ~> ancestral usado para subir a árvore em passos longos. Os saltos seguem
+ * 				uma decomposição em potências de 2 (skew-binary), de forma que
+ * 				qualquer subida custa O(log N) saltos com apenas um inteiro por célula.
+ *
+ * Com isso a distância entre duas células custa O(log N) e o caminho custa O(log N)
+ * mais o seu comprimento. O índice não acompanha alterações do labirinto: ele deve
+ * ser montado novamente se alguma parede mudar.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class IndiceArvore {
+
+	private final int tamanho;
+	private final byte[] sentidos;
+	private final int[] profundidades;
+	private final int[] saltos;
+
+	/**
+	 * Monta o índice do labirinto.
+	 * @param labirinto Labirinto perfeito.
+	 * @throws IllegalArgumentException Se o labirinto possui ciclos ou células isoladas, ou
+	 * se suas células não cabem em um vetor.
+	 */
+	public IndiceArvore(Labirinto labirinto) {
+		int tamanho = labirinto.getTamanho();
+		int celulas = RegistroVisitas.contarCelulas(tamanho);
+		this.tamanho = tamanho;
+		this.sentidos = new byte[celulas];
+		this.profundidades = new int[celulas];
+		this.saltos = new int[celulas];
+
+		//A fila da busca em amplitude também marca as células descobertas
+		RegistroVisitas descobertas = new RegistroVisitas(celulas);
+		descobertas.visitar(0);
+		this.sentidos[0] = -1;
+		this.saltos[0] = 0;
+		for(int k = 0; k < descobertas.getQuantidade(); k++) {
+			int celula = descobertas.getVisita(k);
+			int x = celula % tamanho;
+			int y = celula / tamanho;
+			int chegada = this.sentidos[celula];
+			for(int i = 0; i < 4; i++) {
+				if(!labirinto.movimentoValido(x, y, i) || (chegada >= 0 && i == Labirinto.OPOSTO[chegada]))
+					continue;
+				int filha = celula + Labirinto.DX[i] + Labirinto.DY[i] * tamanho;
+				if(descobertas.foiVisitada(filha))
+					throw new IllegalArgumentException("O labirinto possui ciclos (célula " + x + ", " + y + ")");
+				descobertas.visitar(filha);
+				this.sentidos[filha] = (byte) i;
+				this.profundidades[filha] = this.profundidades[celula] + 1;
+				this.saltos[filha] = this.calcularSalto(celula);
+			}
+		}
+		if(descobertas.getQuantidade() != celulas)
+			throw new IllegalArgumentException("O labirinto possui células sem caminho até 0, 0");
+	}
+
+	/**
+	 * Retorna a distância, em passos, entre duas células. Custa O(log N).
+	 * @param inicio Posição X, Y da primeira célula.
+	 * @param objetivo Posição X, Y da segunda célula.
+	 * @return Número de passos do caminho entre as células.
+	 */
+	public int getDistancia(int[] inicio, int[] objetivo) {
+		int a = this.indice(inicio);
+		int b = this.indice(objetivo);
+		int ancestral = this.ancestralComum(a, b);
+		return this.profundidades[a] + this.profundidades[b] - 2 * this.profundidades[ancestral];
+	}
+
+	/**
+	 * Retorna o ancestral comum mais próximo de duas células, com a árvore enraizada em 0, 0.
+	 * @param inicio Posição X, Y da primeira célula.
+	 * @param objetivo Posição X, Y da segunda célula.
+	 * @return Posição X, Y do ancestral comum.
+	 */
+	public int[] getAncestralComum(int[] inicio, int[] objetivo) {
+		int ancestral = this.ancestralComum(this.indice(inicio), this.indice(objetivo));
+		int[] posicao = {ancestral % this.tamanho, ancestral / this.tamanho};
+		return posicao;
+	}
+
+	/**
+	 * Monta o caminho entre duas células, subindo do INICIO até o ancestral comum e
+	 * descendo até o OBJETIVO.
+	 * @param inicio Posição X, Y da célula inicial.
+	 * @param objetivo Posição X, Y da célula objetivo.
+	 * @return Solução que parte do INICIO e atinge o OBJETIVO.
+	 */
+	public Solucao construirSolucao(int[] inicio, int[] objetivo) {
+		int a = this.indice(inicio);
+		int b = this.indice(objetivo);
+		int ancestral = this.ancestralComum(a, b);
+
+		Solucao solucao = new Solucao(inicio[0], inicio[1]);
+		int custo = 0;
+		for(int c = a; c != ancestral; ) {
+			int sentido = Labirinto.OPOSTO[this.sentidos[c]];
+			c = this.pai(c);
+			solucao = new Solucao(c % this.tamanho, c / this.tamanho, ++custo, sentido, solucao);
+		}
+
+		int[] descida = new int[this.profundidades[b] - this.profundidades[ancestral]];
+		for(int i = descida.length - 1, c = b; i >= 0; i--, c = this.pai(c))
+			descida[i] = c;
+		for(int i = 0; i < descida.length; i++) {
+			int c = descida[i];
+			solucao = new Solucao(c % this.tamanho, c / this.tamanho, ++custo, this.sentidos[c], solucao);
+		}
+		return solucao;
+	}
+
+	public int getTamanho() {
+		return tamanho;
+	}
+
+	/*
+	 * Salto de uma filha de PAI: se os dois saltos acima do pai cobrem distâncias iguais,
+	 * a filha salta por cima de ambos; caso contrário salta apenas até o pai
+	 */
+	private int calcularSalto(int pai) {
+		int salto = this.saltos[pai];
+		int saltoDoSalto = this.saltos[salto];
+		if(this.profundidades[pai] - this.profundidades[salto] == this.profundidades[salto] - this.profundidades[saltoDoSalto])
+			return saltoDoSalto;
+		return pai;
+	}
+
+	private int ancestralComum(int a, int b) {
+		if(this.profundidades[a] < this.profundidades[b]) {
+			int troca = a;
+			a = b;
+			b = troca;
+		}
+
+		int profundidade = this.profundidades[b];
+		while(this.profundidades[a] > profundidade) {
+			if(this.profundidades[this.saltos[a]] >= profundidade)
+				a = this.saltos[a];
+			else
+				a = this.pai(a);
+		}
+
+		while(a != b) {
+			if(this.saltos[a] != this.saltos[b]) {
+				a = this.saltos[a];
+				b = this.saltos[b];
+			} else {
+				a = this.pai(a);
+				b = this.pai(b);
+			}
+		}
+		return a;
+	}
+
+	private int pai(int celula) {
+		int sentido = this.sentidos[celula];
+		return celula - Labirinto.DX[sentido] - Labirinto.DY[sentido] * this.tamanho;
+	}
+
+	private int indice(int[] posicao) {
+		return posicao[1] * this.tamanho + posicao[0];
+	}
+}
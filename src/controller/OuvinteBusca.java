@@ -0,0 +1,25 @@
+package controller;
+
+/**
+ * OuvinteBusca
+ * Interface para acompanhar o progresso de uma busca, por exemplo para desenhá-la.
+ * Um agente sem ouvinte executa em modo headless: sem notificações e sem pausas
+ * entre as expansões.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public interface OuvinteBusca {
+
+	/**
+	 * Chamado pela thread da busca após cada célula expandida.
+	 * @param agente Agente que expandiu a célula; seu estado pode ser lido durante a chamada.
+	 */
+	void expansao(AgenteBuscaAbstrato agente);
+
+	/**
+	 * Chamado pela thread da busca quando ela encontra o objetivo ou esgota a fronteira.
+	 * @param agente Agente que executou a busca.
+	 */
+	void conclusao(AgenteBuscaAbstrato agente);
+}
@@ -0,0 +1,271 @@
+package controller;
+
+import java.io.Closeable;
+
+import model.Labirinto;
+import model.OuvinteLabirinto;
+import model.Solucao;
+
+/**
+ * PlanejadorIncremental
+ * Planejador de caminho que corrige a solução anterior quando paredes do labirinto
+ * mudam, em vez de refazer a busca do zero (Lifelong Planning A*, LPA*).
+ *
+ * Para cada célula o planejador guarda:
+ * g ~> custo conhecido desde o INICIO;
+ * rhs ~> custo calculado a partir do g das vizinhas (0 no INICIO).
+ *
+ * Uma célula é inconsistente quando g e rhs diferem; só as inconsistentes ficam na
+ * fronteira, ordenadas pela chave [min(g, rhs) + h; min(g, rhs)]. Quando uma parede
+ * muda, apenas as duas células que ela separa são recalculadas e a busca seguinte
+ * propaga a alteração somente até onde ela afeta o caminho até o OBJETIVO.
+ *
+ * O planejador é registrado como ouvinte do labirinto e recebe as alterações feitas
+ * por abrirCaminho, fecharCaminho e alterarCaminho. Reconstruir o labirinto, ou mudar
+ * o INICIO ou o OBJETIVO, faz a próxima busca começar do zero.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class PlanejadorIncremental implements OuvinteLabirinto, Closeable {
+
+	private static final int INFINITO = Integer.MAX_VALUE / 2;
+
+	private final Labirinto labirinto;
+	private int[] estadoInicial;
+	private int[] estadoObjetivo;
+
+	/*
+	 * Estado da busca, válido enquanto REINICIAR for falso:
+	 * tocadas ~> células cujos g e rhs foram definidos; as demais valem INFINITO;
+	 * fronteira ~> células inconsistentes, com a chave [k1; k2] guardada como chave K1 e
+	 * 				custo -K2, já que o heap desempata a favor do maior custo.
+	 */
+	private int tamanho;
+	private int inicio;
+	private int objetivo;
+	private int[] g;
+	private int[] rhs;
+	private RegistroVisitas tocadas;
+	private FronteiraHeap fronteira;
+	private boolean reiniciar;
+	private long expansoes;
+
+	/**
+	 * Construtor padrão. O planejador passa a ouvir as alterações do LABIRINTO até ser fechado.
+	 * @param estadoInicial Posição inicial no labirinto.
+	 * @param estadoObjetivo Posição meta no labirinto.
+	 * @param labirinto Labirinto a ser percorrido.
+	 */
+	public PlanejadorIncremental(int[] estadoInicial, int[] estadoObjetivo, Labirinto labirinto) {
+		this.estadoInicial = estadoInicial;
+		this.estadoObjetivo = estadoObjetivo;
+		this.labirinto = labirinto;
+		this.reiniciar = true;
+		labirinto.adicionarOuvinte(this);
+	}
+
+	/**
+	 * Calcula, ou corrige, o menor caminho do INICIO ao OBJETIVO.
+	 * @return Solução que atinge o OBJETIVO ou NULO caso não exista caminho.
+	 * @throws IllegalArgumentException Se as células do labirinto não cabem em um vetor.
+	 */
+	public Solucao planejar() {
+		if(this.reiniciar)
+			this.iniciar();
+		this.expansoes = 0;
+
+		while(!this.fronteira.isVazia()) {
+			int k1 = (int) this.fronteira.getChaveMinima();
+			int k2 = -this.fronteira.getCustoMinimo();
+			int minimoObjetivo = Math.min(this.getG(this.objetivo), this.getRhs(this.objetivo));
+			int k1Objetivo = minimoObjetivo + this.heuristica(this.objetivo);
+			boolean antesDoObjetivo = k1 < k1Objetivo || (k1 == k1Objetivo && k2 < minimoObjetivo);
+			if(!antesDoObjetivo && this.getG(this.objetivo) == this.getRhs(this.objetivo))
+				break;
+
+			int celula = (int) this.fronteira.remover();
+			this.expansoes++;
+			if(this.g[celula] > this.rhs[celula]) {
+				this.g[celula] = this.rhs[celula];
+			} else {
+				this.g[celula] = INFINITO;
+				this.atualizarCelula(celula);
+			}
+			int x = celula % this.tamanho;
+			int y = celula / this.tamanho;
+			for(int i = 0; i < 4; i++) {
+				if(this.labirinto.movimentoValido(x, y, i))
+					this.atualizarCelula(celula + Labirinto.DX[i] + Labirinto.DY[i] * this.tamanho);
+			}
+		}
+		return this.construirSolucao();
+	}
+
+	/**
+	 * Corrige as duas células separadas pela parede alterada.
+	 */
+	@Override
+	public void paredeAlterada(Labirinto labirinto, int x, int y, int sentido, boolean existe) {
+		if(this.reiniciar)
+			return;
+		int celula = y * this.tamanho + x;
+		this.atualizarCelula(celula);
+		this.atualizarCelula(celula + Labirinto.DX[sentido] + Labirinto.DY[sentido] * this.tamanho);
+	}
+
+	@Override
+	public void labirintoReiniciado(Labirinto labirinto) {
+		this.reiniciar = true;
+	}
+
+	/**
+	 * Deixa de ouvir as alterações do labirinto.
+	 */
+	@Override
+	public void close() {
+		this.labirinto.removerOuvinte(this);
+	}
+
+	/**
+	 * Retorna o número de células expandidas pela última chamada a planejar.
+	 * @return Número de células expandidas.
+	 */
+	public long getExpansoes() {
+		return expansoes;
+	}
+
+	public Labirinto getLabirinto() {
+		return labirinto;
+	}
+
+	public int[] getEstadoInicial() {
+		return estadoInicial;
+	}
+
+	public void setEstadoInicial(int[] estadoInicial) {
+		this.estadoInicial = estadoInicial;
+		this.reiniciar = true;
+	}
+
+	public int[] getEstadoObjetivo() {
+		return estadoObjetivo;
+	}
+
+	public void setEstadoObjetivo(int[] estadoObjetivo) {
+		this.estadoObjetivo = estadoObjetivo;
+		this.reiniciar = true;
+	}
+
+	/*
+	 * Descarta o estado anterior, reaproveitando os vetores se o tamanho não mudou
+	 */
+	private void iniciar() {
+		int tamanho = this.labirinto.getTamanho();
+		int celulas = RegistroVisitas.contarCelulas(tamanho);
+		if(this.g == null || this.tamanho != tamanho) {
+			this.g = new int[celulas];
+			this.rhs = new int[celulas];
+			this.tocadas = new RegistroVisitas(celulas, false);
+			this.fronteira = new FronteiraHeap(celulas);
+		} else {
+			this.tocadas.limpar();
+			this.fronteira.limpar();
+		}
+		this.tamanho = tamanho;
+		this.inicio = this.estadoInicial[1] * tamanho + this.estadoInicial[0];
+		this.objetivo = this.estadoObjetivo[1] * tamanho + this.estadoObjetivo[0];
+
+		this.tocar(this.inicio);
+		this.rhs[this.inicio] = 0;
+		this.fronteira.adicionar(this.inicio, this.heuristica(this.inicio), 0);
+		this.reiniciar = false;
+	}
+
+	/*
+	 * Recalcula o rhs da célula e a coloca ou retira da fronteira conforme sua consistência
+	 */
+	private void atualizarCelula(int celula) {
+		this.tocar(celula);
+		if(celula != this.inicio) {
+			int x = celula % this.tamanho;
+			int y = celula / this.tamanho;
+			int melhor = INFINITO;
+			for(int i = 0; i < 4; i++) {
+				if(!this.labirinto.movimentoValido(x, y, i))
+					continue;
+				int custo = this.getG(celula + Labirinto.DX[i] + Labirinto.DY[i] * this.tamanho) + 1;
+				if(custo < melhor)
+					melhor = custo;
+			}
+			this.rhs[celula] = melhor;
+		}
+
+		if(this.g[celula] != this.rhs[celula]) {
+			int minimo = Math.min(this.g[celula], this.rhs[celula]);
+			this.fronteira.atualizar(celula, minimo + this.heuristica(celula), -minimo);
+		} else {
+			this.fronteira.retirar(celula);
+		}
+	}
+
+	/*
+	 * Refaz o caminho a partir do OBJETIVO, sempre para a vizinha de menor g
+	 */
+	private Solucao construirSolucao() {
+		int passos = this.getG(this.objetivo);
+		if(passos >= INFINITO)
+			return null;
+
+		int[] caminho = new int[passos + 1];
+		byte[] sentidos = new byte[passos + 1];
+		caminho[passos] = this.objetivo;
+		for(int i = passos, celula = this.objetivo; i > 0; i--) {
+			int x = celula % this.tamanho;
+			int y = celula / this.tamanho;
+			int anterior = -1;
+			int sentido = -1;
+			for(int s = 0; s < 4; s++) {
+				if(!this.labirinto.movimentoValido(x, y, s))
+					continue;
+				int vizinha = celula + Labirinto.DX[s] + Labirinto.DY[s] * this.tamanho;
+				if(anterior < 0 || this.getG(vizinha) < this.getG(anterior)) {
+					anterior = vizinha;
+					sentido = s;
+				}
+			}
+			sentidos[i] = (byte) Labirinto.OPOSTO[sentido];
+			caminho[i - 1] = anterior;
+			celula = anterior;
+		}
+
+		Solucao solucao = new Solucao(this.estadoInicial[0], this.estadoInicial[1]);
+		for(int i = 1; i <= passos; i++)
+			solucao = new Solucao(caminho[i] % this.tamanho, caminho[i] / this.tamanho, i, sentidos[i], solucao);
+		return solucao;
+	}
+
+	private void tocar(int celula) {
+		if(!this.tocadas.foiVisitada(celula)) {
+			this.tocadas.visitar(celula);
+			this.g[celula] = INFINITO;
+			this.rhs[celula] = INFINITO;
+		}
+	}
+
+	private int getG(int celula) {
+		return this.tocadas.foiVisitada(celula) ? this.g[celula] : INFINITO;
+	}
+
+	private int getRhs(int celula) {
+		return this.tocadas.foiVisitada(celula) ? this.rhs[celula] : INFINITO;
+	}
+
+	/*
+	 * Distância de Manhattan até o OBJETIVO: consistente para passos de custo 1
+	 */
+	private int heuristica(int celula) {
+		return Math.abs(celula % this.tamanho - this.objetivo % this.tamanho)
+				+ Math.abs(celula / this.tamanho - this.objetivo / this.tamanho);
+	}
+}
@@ -0,0 +1,125 @@
+package controller;
+
+import java.util.Arrays;
+
+/**
+ * RegistroVisitas
+ * Conjunto de células visitadas por uma busca, indexado pelo índice da célula
+ * (Y * TAMANHO + X). Cada busca possui seu próprio registro, então várias
+ * buscas podem percorrer o mesmo Labirinto ao mesmo tempo sem alterá-lo.
+ *
+ * Para que limpar o registro não custe uma varredura de todas as células,
+ * cada marca guarda a ÉPOCA em que foi feita: a célula está visitada se sua
+ * marca é igual à época atual, e limpar o registro é apenas avançar a época.
+ * O registro também pode guardar a ORDEM em que as células foram visitadas.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class RegistroVisitas {
+
+	/*
+	 * Maior vetor que a JVM aloca com segurança
+	 */
+	private static final int MAXIMO_VETOR = Integer.MAX_VALUE - 8;
+
+	private int[] marcas;
+	private int epoca;
+	private int[] ordem;
+	private int quantidade;
+
+	/**
+	 * Construtor parametrizado.
+	 * @param celulas Número de células que o registro pode marcar.
+	 * @param guardarOrdem True para guardar a ordem das visitas (getVisita).
+	 */
+	public RegistroVisitas(int celulas, boolean guardarOrdem) {
+		this.marcas = new int[celulas];
+		this.epoca = 1;
+		this.ordem = guardarOrdem ? new int[celulas] : null;
+		this.quantidade = 0;
+	}
+
+	/**
+	 * Construtor padrão, guardando a ordem das visitas.
+	 * @param celulas Número de células que o registro pode marcar.
+	 */
+	public RegistroVisitas(int celulas) {
+		this(celulas, true);
+	}
+
+	/**
+	 * Desmarca todas as células em O(1), avançando a época. Apenas quando
+	 * a época estoura as marcas são zeradas de fato.
+	 */
+	public void limpar() {
+		if(this.epoca == Integer.MAX_VALUE) {
+			Arrays.fill(this.marcas, 0);
+			this.epoca = 0;
+		}
+		this.epoca++;
+		this.quantidade = 0;
+	}
+
+	/**
+	 * Marca a célula como visitada, caso ainda não tenha sido.
+	 * @param celula Índice da célula.
+	 */
+	public void visitar(int celula) {
+		if(this.marcas[celula] != this.epoca) {
+			this.marcas[celula] = this.epoca;
+			if(this.ordem != null)
+				this.ordem[this.quantidade] = celula;
+			this.quantidade++;
+		}
+	}
+
+	/**
+	 * Verifica se a célula foi visitada desde a última limpeza.
+	 * @param celula Índice da célula.
+	 * @return True se a célula foi visitada.
+	 */
+	public boolean foiVisitada(int celula) {
+		return this.marcas[celula] == this.epoca;
+	}
+
+	/**
+	 * Retorna o número de células visitadas desde a última limpeza.
+	 * @return Quantidade de células visitadas.
+	 */
+	public int getQuantidade() {
+		return this.quantidade;
+	}
+
+	/**
+	 * Retorna a I-ésima célula visitada desde a última limpeza.
+	 * @param i Ordem da visita, entre 0 e getQuantidade() - 1.
+	 * @return Índice da célula.
+	 */
+	public int getVisita(int i) {
+		return this.ordem[i];
+	}
+
+	/**
+	 * Retorna o número de células de um labirinto TAMANHO x TAMANHO, para as estruturas
+	 * que guardam um valor por célula em vetores indexados por Y * TAMANHO + X.
+	 * @param tamanho Lado do labirinto.
+	 * @return Número de células.
+	 * @throws IllegalArgumentException Se as células não cabem em um vetor.
+	 */
+	public static int contarCelulas(int tamanho) {
+		long celulas = (long) tamanho * tamanho;
+		if(celulas > MAXIMO_VETOR)
+			throw new IllegalArgumentException("Labirinto grande demais: " + tamanho + " x " + tamanho
+					+ " células não cabem em um vetor");
+		return (int) celulas;
+	}
+
+	/**
+	 * Retorna o número de células que o registro pode marcar.
+	 * @return Capacidade do registro.
+	 */
+	public int getCapacidade() {
+		return this.marcas.length;
+	}
+}
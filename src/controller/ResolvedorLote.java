@@ -0,0 +1,181 @@
+package controller;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.Labirinto;
+import model.Solucao;
+import controller.AgenteBuscaAbstrato.Busca;
+
+/**
+ * ResolvedorLote
+ * Resolve lotes de consultas (INICIO, OBJETIVO) sobre um mesmo Labirinto em paralelo.
+ * O lote é dividido em tarefas de TAMANHO_TAREFA consultas executadas num
+ * ExecutorService. Cada tarefa pega um AgenteBusca livre do resolvedor, e portanto seu
+ * EspacoBusca, e o devolve ao terminar: há no máximo um agente por tarefa simultânea,
+ * reaproveitado entre tarefas e lotes, e todos são descartados por close, mesmo quando o
+ * executor foi fornecido por quem chamou e continua vivo.
+ *
+ * Cada consulta é um vetor {xInicio, yInicio, xObjetivo, yObjetivo}. Os resultados são
+ * devolvidos na ordem das consultas.
+ *
+ * O labirinto é apenas lido e não pode ser alterado enquanto um lote é resolvido. A
+ * heurística configurada é compartilhada pelas threads e deve ser somente leitura, como
+ * as heurísticas deste pacote.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class ResolvedorLote implements Closeable {
+
+	private static final int TAMANHO_TAREFA = 64;
+
+	private final Labirinto labirinto;
+	private final ExecutorService executor;
+	private final boolean executorProprio;
+	private final ConcurrentLinkedQueue<AgenteBusca> agentes;
+	private volatile Busca tipoBusca;
+	private volatile Heuristica heuristica;
+
+	/**
+	 * Construtor parametrizado.
+	 * @param labirinto Labirinto das consultas.
+	 * @param executor Executor das tarefas; não é encerrado por close.
+	 */
+	public ResolvedorLote(Labirinto labirinto, ExecutorService executor) {
+		this(labirinto, executor, false);
+	}
+
+	/**
+	 * Construtor padrão, com um executor próprio de uma thread por processador.
+	 * @param labirinto Labirinto das consultas.
+	 */
+	public ResolvedorLote(Labirinto labirinto) {
+		this(labirinto, Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()), true);
+	}
+
+	private ResolvedorLote(Labirinto labirinto, ExecutorService executor, boolean executorProprio) {
+		this.labirinto = labirinto;
+		this.executor = executor;
+		this.executorProprio = executorProprio;
+		this.tipoBusca = Busca.AESTRELA;
+		this.heuristica = new HeuristicaManhattan();
+		this.agentes = new ConcurrentLinkedQueue<AgenteBusca>();
+	}
+
+	/**
+	 * Calcula o custo do menor caminho de cada consulta.
+	 * @param consultas Vetor de consultas {xInicio, yInicio, xObjetivo, yObjetivo}.
+	 * @return Custo de cada consulta, na mesma ordem, ou -1 se não há caminho.
+	 */
+	public int[] calcularCustos(int[][] consultas) {
+		int[] custos = new int[consultas.length];
+		this.resolver(consultas, custos, null);
+		return custos;
+	}
+
+	/**
+	 * Calcula o menor caminho de cada consulta.
+	 * @param consultas Vetor de consultas {xInicio, yInicio, xObjetivo, yObjetivo}.
+	 * @return Solução de cada consulta, na mesma ordem, ou NULO se não há caminho.
+	 */
+	public Solucao[] calcularCaminhos(int[][] consultas) {
+		Solucao[] caminhos = new Solucao[consultas.length];
+		this.resolver(consultas, new int[consultas.length], caminhos);
+		return caminhos;
+	}
+
+	/**
+	 * Descarta os agentes livres e encerra o executor, caso tenha sido criado pelo
+	 * próprio resolvedor.
+	 */
+	@Override
+	public void close() {
+		this.agentes.clear();
+		if(this.executorProprio)
+			this.executor.shutdown();
+	}
+
+	public Labirinto getLabirinto() {
+		return labirinto;
+	}
+
+	public Busca getTipoBusca() {
+		return tipoBusca;
+	}
+
+	/**
+	 * Configura o tipo de busca das próximas consultas. O padrão é A Estrela.
+	 * @param tipoBusca Tipo de Busca.
+	 */
+	public void setTipoBusca(Busca tipoBusca) {
+		this.tipoBusca = tipoBusca;
+	}
+
+	public Heuristica getHeuristica() {
+		return heuristica;
+	}
+
+	/**
+	 * Configura a heurística das próximas consultas. O padrão é a HeuristicaManhattan.
+	 * @param heuristica Heurística somente leitura, compartilhada pelas threads.
+	 */
+	public void setHeuristica(Heuristica heuristica) {
+		this.heuristica = heuristica;
+	}
+
+	/*
+	 * Divide o lote em tarefas e aguarda todas. CAMINHOS é NULO quando só os custos interessam.
+	 */
+	private void resolver(final int[][] consultas, final int[] custos, final Solucao[] caminhos) {
+		final Busca tipoBusca = this.tipoBusca;
+		final Heuristica heuristica = this.heuristica;
+		List<Callable<Void>> tarefas = new ArrayList<Callable<Void>>();
+		for(int inicio = 0; inicio < consultas.length; inicio += TAMANHO_TAREFA) {
+			final int de = inicio;
+			final int ate = Math.min(consultas.length, inicio + TAMANHO_TAREFA);
+			tarefas.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					AgenteBusca agente = agentes.poll();
+					if(agente == null)
+						agente = new AgenteBusca(new int[]{0, 0}, new int[]{0, 0}, labirinto);
+					try {
+						agente.setTipoBusca(tipoBusca);
+						agente.setHeuristica(heuristica);
+						for(int i = de; i < ate; i++) {
+							int[] consulta = consultas[i];
+							agente.resetarBusca(consulta[0], consulta[1], consulta[2], consulta[3]);
+							agente.passo(Long.MAX_VALUE);
+
+							//A Solucao só é montada quando o caminho foi pedido
+							custos[i] = agente.getCustoSolucao();
+							if(caminhos != null)
+								caminhos[i] = agente.getSolucao();
+						}
+					} finally {
+						agentes.offer(agente);
+					}
+					return null;
+				}
+			});
+		}
+
+		try {
+			for(Future<Void> resultado : this.executor.invokeAll(tarefas))
+				resultado.get();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Resolução do lote interrompida", e);
+		} catch(ExecutionException e) {
+			throw new IllegalStateException("Falha ao resolver o lote", e.getCause());
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package desempenho;
+
+import java.lang.management.ManagementFactory;
+
+import model.ArmazenamentoCompacto;
+import model.Labirinto;
+import controller.AgenteBusca;
+import controller.AgenteBuscaAbstrato.Busca;
+import controller.AgenteBuscaAbstrato.Estado;
+
+/**
+ * AlocacaoBusca
+ * Mede os bytes alocados por célula expandida em cada tipo de Busca, contando apenas a
+ * busca (passo) e não a montagem da Solucao final. Cada tipo é executado uma vez para
+ * aquecer a JVM e dimensionar os vetores reaproveitados, e medido na execução seguinte
+ * com o contador de alocação por thread da JVM (com.sun.management.ThreadMXBean), que
+ * substitui aqui o -prof gc do JMH.
+ *
+ * Uso: java desempenho.AlocacaoBusca [tamanho] (padrão 1000)
+ *
+ * Termina com código 1 se alguma busca alocar em média um byte ou mais por expansão.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class AlocacaoBusca {
+
+	public static void main(String[] args) {
+		int tamanho = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		com.sun.management.ThreadMXBean threads =
+				(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+
+		Labirinto labirinto = new Labirinto(tamanho, new ArmazenamentoCompacto());
+		labirinto.gerarLabirintoRecursivo(tamanho);
+		int[] inicio = {0, 0};
+		int[] objetivo = {tamanho - 1, tamanho - 1};
+
+		boolean falhou = false;
+		System.out.println("busca          expansões  bytes alocados  bytes/expansão");
+		for(Busca tipo : Busca.values()) {
+			AgenteBusca agente = new AgenteBusca(inicio, objetivo, labirinto);
+			agente.setTipoBusca(tipo);
+			agente.resetarBusca();
+			agente.passo(Long.MAX_VALUE);
+
+			agente.resetarBusca();
+			long antes = threads.getThreadAllocatedBytes(thread);
+			Estado estado = agente.passo(Long.MAX_VALUE);
+			long alocados = threads.getThreadAllocatedBytes(thread) - antes;
+			if(estado != Estado.ENCONTRADA)
+				throw new IllegalStateException(tipo + " não encontrou o objetivo");
+
+			double porExpansao = (double) alocados / Math.max(1, agente.getExpansoes());
+			System.out.printf("%-13s  %9d  %14d  %14.3f%n", tipo, agente.getExpansoes(), alocados, porExpansao);
+			if(porExpansao >= 1)
+				falhou = true;
+		}
+		if(falhou) {
+			System.out.println("FALHA: alguma busca aloca memória por expansão");
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package desempenho;
+
+import java.io.IOException;
+
+import model.ArmazenamentoMapeado;
+import model.GeradorParalelo;
+import model.Labirinto;
+import controller.AgenteBusca;
+import controller.AgenteBuscaAbstrato.Busca;
+import controller.AgenteBuscaAbstrato.Estado;
+import controller.HeuristicaManhattan;
+
+/**
+ * BuscaMapeada
+ * Resolve com o AgenteBusca um labirinto do ArmazenamentoMapeado maior que o heap da JVM:
+ * gera um labirinto perfeito TAMANHO x TAMANHO com o GeradorParalelo, direto no arquivo
+ * mapeado, e busca do canto superior esquerdo ao inferior direito com cada tipo de busca,
+ * imprimindo o tempo, as expansões e o custo. O custo é lido com getCustoSolucao, sem
+ * montar a corrente de Solucao, que para um caminho deste tamanho não caberia no heap.
+ *
+ * Como o labirinto é perfeito há um único caminho entre os cantos, e todas as buscas
+ * devem encontrar o mesmo custo.
+ *
+ * Uso: java -Xmx64m desempenho.BuscaMapeada [tamanho] (padrão 20000)
+ *
+ * Termina com código 1 se alguma busca não encontrar o objetivo ou os custos diferirem.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class BuscaMapeada {
+
+	private static final long SEMENTE = 5;
+
+	public static void main(String[] args) throws IOException {
+		int tamanho = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		long celulas = (long) tamanho * tamanho;
+
+		ArmazenamentoMapeado armazenamento = new ArmazenamentoMapeado();
+		try {
+			Labirinto labirinto = new Labirinto(tamanho, armazenamento);
+			GeradorParalelo gerador = new GeradorParalelo();
+			long inicio = System.nanoTime();
+			try {
+				gerador.gerar(labirinto, SEMENTE);
+			} finally {
+				gerador.close();
+			}
+			System.out.printf("labirinto %d x %d: %d células, arquivo de %d MB, heap máximo de %d MB, gerado em %.1f s%n",
+					tamanho, tamanho, celulas, armazenamento.getTamanhoArquivo() >> 20,
+					Runtime.getRuntime().maxMemory() >> 20, (System.nanoTime() - inicio) / 1e9);
+
+			AgenteBusca agente = new AgenteBusca(new int[]{0, 0}, new int[]{tamanho - 1, tamanho - 1}, labirinto);
+			agente.setHeuristica(new HeuristicaManhattan());
+			boolean falhou = false;
+			int referencia = -1;
+
+			System.out.println("busca                 ms     expansões  expansões/célula      custo");
+			for(Busca tipo : Busca.values()) {
+				agente.setTipoBusca(tipo);
+				agente.resetarBusca();
+				inicio = System.nanoTime();
+				Estado estado = agente.passo(Long.MAX_VALUE);
+				long tempo = System.nanoTime() - inicio;
+				int custo = agente.getCustoSolucao();
+
+				if(estado != Estado.ENCONTRADA) {
+					System.out.println("FALHA: " + tipo + " terminou " + estado);
+					falhou = true;
+					continue;
+				}
+				if(referencia < 0)
+					referencia = custo;
+				falhou |= custo != referencia;
+				System.out.printf("%-12s  %10.1f  %12d  %16.3f  %9d%s%n", tipo, tempo / 1e6, agente.getExpansoes(),
+						(double) agente.getExpansoes() / celulas, custo, custo == referencia ? "" : "  DIFERENTE");
+			}
+			if(falhou) {
+				System.out.println("FALHA: alguma busca não encontrou o objetivo ou encontrou outro custo");
+				System.exit(1);
+			}
+		} finally {
+			armazenamento.close();
+		}
+	}
+}
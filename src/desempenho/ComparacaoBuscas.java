@@ -0,0 +1,74 @@
+package desempenho;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import model.ArmazenamentoCompacto;
+import model.Labirinto;
+import controller.AgenteBusca;
+import controller.AgenteBuscaAbstrato.Busca;
+import controller.AgenteBuscaAbstrato.Estado;
+
+/**
+ * ComparacaoBuscas
+ * Compara os tipos de Busca do AgenteBusca em labirintos perfeitos gerados pela técnica
+ * recursiva: para cada tamanho, as mesmas CONSULTAS aleatórias são resolvidas por todos
+ * os tipos, e são impressos o total de células expandidas e o tempo. Os custos das buscas
+ * que garantem o menor caminho (A Estrela, Amplitude e Bidirecional) são conferidos entre si.
+ *
+ * Uso: java desempenho.ComparacaoBuscas [consultas [tamanho ...]] (padrão 20 250 500 1000)
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class ComparacaoBuscas {
+
+	public static void main(String[] args) {
+		int consultas = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		int[] tamanhos = args.length > 1 ? new int[args.length - 1] : new int[]{250, 500, 1000};
+		for(int i = 1; i < args.length; i++)
+			tamanhos[i - 1] = Integer.parseInt(args[i]);
+
+		System.out.println("tamanho  busca          expansões/consulta  ms/consulta");
+		for(int tamanho : tamanhos) {
+			Labirinto labirinto = new Labirinto(tamanho, new ArmazenamentoCompacto());
+			labirinto.gerarLabirintoRecursivo(tamanho);
+			Random aleatorio = new Random(tamanho);
+			int[][] inicios = new int[consultas][];
+			int[][] objetivos = new int[consultas][];
+			for(int i = 0; i < consultas; i++) {
+				inicios[i] = new int[]{aleatorio.nextInt(tamanho), aleatorio.nextInt(tamanho)};
+				objetivos[i] = new int[]{aleatorio.nextInt(tamanho), aleatorio.nextInt(tamanho)};
+			}
+
+			int[] custos = null;
+			for(Busca tipo : Busca.values()) {
+				AgenteBusca agente = new AgenteBusca(inicios[0], objetivos[0], labirinto);
+				agente.setTipoBusca(tipo);
+				//Aquecimento com a primeira consulta
+				agente.passo(Long.MAX_VALUE);
+
+				int[] custosTipo = new int[consultas];
+				long expansoes = 0;
+				long inicio = System.nanoTime();
+				for(int i = 0; i < consultas; i++) {
+					agente.setEstadoInicial(inicios[i]);
+					agente.setEstadoObjetivo(objetivos[i]);
+					if(agente.passo(Long.MAX_VALUE) != Estado.ENCONTRADA)
+						throw new IllegalStateException(tipo + " não encontrou a consulta " + i);
+					custosTipo[i] = agente.getCustoSolucao();
+					expansoes += agente.getExpansoes();
+				}
+				long tempo = System.nanoTime() - inicio;
+
+				boolean otima = tipo == Busca.AESTRELA || tipo == Busca.AMPLITUDE || tipo == Busca.BIDIRECIONAL;
+				if(otima && custos == null)
+					custos = custosTipo;
+				else if(otima && !Arrays.equals(custos, custosTipo))
+					throw new IllegalStateException(tipo + " encontrou custos diferentes");
+				System.out.printf("%7d  %-13s  %18d  %11.2f%n", tamanho, tipo, expansoes / consultas,
+						tempo / 1e6 / consultas);
+			}
+		}
+	}
+}
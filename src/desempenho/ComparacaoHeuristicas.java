@@ -0,0 +1,99 @@
+package desempenho;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import model.ArmazenamentoCompacto;
+import model.Labirinto;
+import controller.AgenteBusca;
+import controller.AgenteBuscaAbstrato.Busca;
+import controller.AgenteBuscaAbstrato.Estado;
+import controller.Heuristica;
+import controller.HeuristicaEuclidiana;
+import controller.HeuristicaManhattan;
+import controller.HeuristicaMarcos;
+
+/**
+ * ComparacaoHeuristicas
+ * Compara as heurísticas da busca A Estrela: as mesmas CONSULTAS aleatórias são resolvidas
+ * com a Euclidiana, a Manhattan e a de marcos (ALT), num labirinto perfeito e no mesmo
+ * labirinto com passagens extras, e são impressos o total de células expandidas e o tempo.
+ * Os custos são conferidos entre as heurísticas, que devem encontrar sempre o menor caminho.
+ *
+ * Uso: java desempenho.ComparacaoHeuristicas [tamanho [consultas [extras [marcos]]]]
+ * (padrão 1000 30 100000 8)
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class ComparacaoHeuristicas {
+
+	public static void main(String[] args) {
+		int tamanho = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int consultas = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+		int extras = args.length > 2 ? Integer.parseInt(args[2]) : 100000;
+		int marcos = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+
+		Labirinto labirinto = new Labirinto(tamanho, new ArmazenamentoCompacto());
+		labirinto.gerarLabirintoRecursivo(tamanho);
+		Random aleatorio = new Random(tamanho);
+		int[][] inicios = new int[consultas][];
+		int[][] objetivos = new int[consultas][];
+		for(int i = 0; i < consultas; i++) {
+			inicios[i] = new int[]{aleatorio.nextInt(tamanho), aleatorio.nextInt(tamanho)};
+			objetivos[i] = new int[]{aleatorio.nextInt(tamanho), aleatorio.nextInt(tamanho)};
+		}
+
+		System.out.println("labirinto  heurística   expansões/consulta  ms/consulta  ms preparo");
+		comparar("perfeito", labirinto, inicios, objetivos, marcos);
+
+		//Passagens extras em paredes internas sorteadas, criando ciclos
+		for(int i = 0; i < extras; i++) {
+			int x = aleatorio.nextInt(tamanho - 1);
+			int y = aleatorio.nextInt(tamanho - 1);
+			labirinto.abrirCaminho(x, y, aleatorio.nextBoolean() ? Labirinto.L : Labirinto.S);
+		}
+		comparar("com ciclos", labirinto, inicios, objetivos, marcos);
+	}
+
+	/*
+	 * Resolve as consultas com cada heurística e confere os custos
+	 */
+	private static void comparar(String nome, Labirinto labirinto, int[][] inicios, int[][] objetivos, int marcos) {
+		long preparo = System.nanoTime();
+		HeuristicaMarcos alt = new HeuristicaMarcos(labirinto, marcos);
+		preparo = System.nanoTime() - preparo;
+
+		Heuristica[] heuristicas = {new HeuristicaEuclidiana(), new HeuristicaManhattan(), alt};
+		String[] nomes = {"euclidiana", "manhattan", "marcos(" + marcos + ")"};
+		int consultas = inicios.length;
+		int[] custos = null;
+		for(int h = 0; h < heuristicas.length; h++) {
+			AgenteBusca agente = new AgenteBusca(inicios[0], objetivos[0], labirinto);
+			agente.setTipoBusca(Busca.AESTRELA);
+			agente.setHeuristica(heuristicas[h]);
+			//Aquecimento com a primeira consulta
+			agente.passo(Long.MAX_VALUE);
+
+			int[] custosHeuristica = new int[consultas];
+			long expansoes = 0;
+			long inicio = System.nanoTime();
+			for(int i = 0; i < consultas; i++) {
+				agente.setEstadoInicial(inicios[i]);
+				agente.setEstadoObjetivo(objetivos[i]);
+				if(agente.passo(Long.MAX_VALUE) != Estado.ENCONTRADA)
+					throw new IllegalStateException(nomes[h] + " não encontrou a consulta " + i);
+				custosHeuristica[i] = agente.getCustoSolucao();
+				expansoes += agente.getExpansoes();
+			}
+			long tempo = System.nanoTime() - inicio;
+
+			if(custos == null)
+				custos = custosHeuristica;
+			else if(!Arrays.equals(custos, custosHeuristica))
+				throw new IllegalStateException(nomes[h] + " encontrou custos diferentes");
+			System.out.printf("%-10s %-12s %18d  %11.2f  %10s%n", nome, nomes[h], expansoes / consultas,
+					tempo / 1e6 / consultas, heuristicas[h] == alt ? String.format("%.1f", preparo / 1e6) : "-");
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package desempenho;
+
+import java.util.Arrays;
+
+import model.ArmazenamentoCompacto;
+import model.Labirinto;
+import controller.BuscaParalela;
+import controller.CampoDistancias;
+
+/**
+ * EscalaBuscaParalela
+ * Mede a escala da BuscaParalela de 1 a N threads: para cada número de threads calcula o
+ * campo de distâncias completo a partir do centro de um labirinto e imprime o melhor tempo
+ * de algumas repetições e o ganho sobre uma thread. Os campos são conferidos com o de uma
+ * thread.
+ *
+ * Uso: java desempenho.EscalaBuscaParalela [tamanho [threads]]
+ * (padrão 2000 e o número de processadores)
+ *
+ * Um labirinto com muitos ciclos tem níveis largos, que é onde a busca paralela ganha; um
+ * labirinto perfeito tem níveis estreitos e quase não escala.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class EscalaBuscaParalela {
+
+	private static final int REPETICOES = 3;
+
+	public static void main(String[] args) {
+		int tamanho = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int maximo = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+		//Labirinto de Prim com uma passagem extra a cada 8 células, para criar ciclos
+		Labirinto labirinto = new Labirinto(tamanho, new ArmazenamentoCompacto());
+		labirinto.gerarLabirintoPrim(tamanho);
+		for(int y = 0; y < tamanho; y += 2)
+			for(int x = y & 2; x < tamanho; x += 4)
+				labirinto.abrirCaminho(x, y, Labirinto.L);
+
+		//Aquecimento da JVM, para que a medição de uma thread não pague a compilação
+		BuscaParalela aquecimento = new BuscaParalela(maximo);
+		try {
+			for(int r = 0; r < REPETICOES; r++)
+				aquecimento.calcular(labirinto, 0, 0);
+		} finally {
+			aquecimento.close();
+		}
+
+		System.out.println("processadores disponíveis: " + Runtime.getRuntime().availableProcessors());
+		System.out.println("threads       ms  ganho");
+		int[] referencia = null;
+		double base = 0;
+		for(int threads = 1; threads <= maximo; threads++) {
+			BuscaParalela busca = new BuscaParalela(threads);
+			try {
+				long melhor = Long.MAX_VALUE;
+				CampoDistancias campo = null;
+				for(int r = 0; r < REPETICOES; r++) {
+					long inicio = System.nanoTime();
+					campo = busca.calcular(labirinto, tamanho / 2, tamanho / 2);
+					melhor = Math.min(melhor, System.nanoTime() - inicio);
+				}
+				int[] distancias = new int[tamanho * tamanho];
+				for(int y = 0; y < tamanho; y++)
+					for(int x = 0; x < tamanho; x++)
+						distancias[y * tamanho + x] = campo.getDistancia(x, y);
+				if(referencia == null) {
+					referencia = distancias;
+					base = melhor;
+				} else if(!Arrays.equals(referencia, distancias))
+					throw new IllegalStateException("Distâncias diferentes com " + threads + " threads");
+				System.out.printf("%7d  %7.1f  %5.2f%n", threads, melhor / 1e6, base / melhor);
+			} finally {
+				busca.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package desempenho;
+
+import java.io.IOException;
+
+import model.ArmazenamentoCelulas;
+import model.ArmazenamentoCompacto;
+import model.ArmazenamentoLabirinto;
+import model.ArmazenamentoMapeado;
+import model.GeradorParalelo;
+import model.Labirinto;
+import controller.BuscaParalela;
+
+/**
+ * EscalaGeradorParalelo
+ * Mede a escalabilidade do GeradorParalelo: gera o mesmo labirinto TAMANHO x TAMANHO com
+ * 1, 2, ... até THREADS threads e imprime, para cada quantidade, o melhor tempo de
+ * REPETICOES execuções, os nanossegundos por célula e o ganho sobre uma thread. Antes
+ * das medições cada gerador gera um labirinto pequeno para aquecer a JVM.
+ *
+ * O labirinto deve ser o mesmo para qualquer quantidade de threads: um resumo das
+ * paredes é comparado com o da primeira execução, e o labirinto de uma thread é conferido
+ * como labirinto perfeito (N² - 1 passagens e todas as células alcançáveis).
+ *
+ * Uso: java desempenho.EscalaGeradorParalelo [tamanho [threads [compacto|celulas|mapeado]]]
+ * (padrão 4000, número de processadores, compacto)
+ *
+ * Termina com código 1 se o labirinto não for perfeito ou mudar com o número de threads.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class EscalaGeradorParalelo {
+
+	private static final int REPETICOES = 3;
+	private static final long SEMENTE = 2;
+
+	public static void main(String[] args) throws IOException {
+		int tamanho = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+		int maximo = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		String tipo = args.length > 2 ? args[2] : "compacto";
+
+		ArmazenamentoLabirinto armazenamento = criarArmazenamento(tipo);
+		try {
+			Labirinto labirinto = new Labirinto(tamanho, armazenamento);
+			Labirinto aquecimento = new Labirinto(Math.min(tamanho, 500), new ArmazenamentoCompacto());
+			boolean falhou = false;
+			long referencia = 0;
+			long tempoUma = 0;
+
+			System.out.println("threads        ms  ns/célula  ganho  mesmo labirinto");
+			for(int threads = 1; threads <= maximo; threads++) {
+				GeradorParalelo gerador = new GeradorParalelo(threads);
+				try {
+					gerador.gerar(aquecimento, 1);
+					long melhor = Long.MAX_VALUE;
+					for(int r = 0; r < REPETICOES; r++) {
+						long inicio = System.nanoTime();
+						gerador.gerar(labirinto, SEMENTE);
+						melhor = Math.min(melhor, System.nanoTime() - inicio);
+					}
+
+					long resumo = resumir(labirinto);
+					if(threads == 1) {
+						referencia = resumo;
+						tempoUma = melhor;
+						if(!isPerfeito(labirinto)) {
+							System.out.println("FALHA: o labirinto gerado não é perfeito");
+							falhou = true;
+						}
+					}
+					boolean mesmo = resumo == referencia;
+					falhou |= !mesmo;
+					System.out.printf("%7d  %8.1f  %9.2f  %5.2f  %s%n", threads, melhor / 1e6,
+							(double) melhor / ((long) tamanho * tamanho), (double) tempoUma / melhor,
+							mesmo ? "sim" : "NÃO");
+				} finally {
+					gerador.close();
+				}
+			}
+			if(falhou) {
+				System.out.println("FALHA: o labirinto mudou com o número de threads ou não é perfeito");
+				System.exit(1);
+			}
+		} finally {
+			if(armazenamento instanceof ArmazenamentoMapeado)
+				((ArmazenamentoMapeado) armazenamento).close();
+		}
+	}
+
+	private static ArmazenamentoLabirinto criarArmazenamento(String tipo) throws IOException {
+		if(tipo.equals("celulas"))
+			return new ArmazenamentoCelulas();
+		if(tipo.equals("mapeado"))
+			return new ArmazenamentoMapeado();
+		return new ArmazenamentoCompacto();
+	}
+
+	/*
+	 * Resumo das passagens leste e sul de todas as células, sensível à posição
+	 */
+	private static long resumir(Labirinto labirinto) {
+		int tamanho = labirinto.getTamanho();
+		long resumo = 1;
+		for(int y = 0; y < tamanho; y++)
+			for(int x = 0; x < tamanho; x++) {
+				int bits = (labirinto.movimentoValido(x, y, Labirinto.L) ? 1 : 0)
+						| (labirinto.movimentoValido(x, y, Labirinto.S) ? 2 : 0);
+				resumo = resumo * 31 + bits;
+			}
+		return resumo;
+	}
+
+	/*
+	 * Um labirinto perfeito é uma árvore: N² - 1 passagens e todas as células conectadas
+	 */
+	private static boolean isPerfeito(Labirinto labirinto) {
+		int tamanho = labirinto.getTamanho();
+		long passagens = 0;
+		for(int y = 0; y < tamanho; y++)
+			for(int x = 0; x < tamanho; x++) {
+				if(labirinto.movimentoValido(x, y, Labirinto.L))
+					passagens++;
+				if(labirinto.movimentoValido(x, y, Labirinto.S))
+					passagens++;
+			}
+		if(passagens != (long) tamanho * tamanho - 1)
+			return false;
+		BuscaParalela busca = new BuscaParalela(1);
+		try {
+			return busca.calcular(labirinto, 0, 0).getAlcancadas() == (long) tamanho * tamanho;
+		} finally {
+			busca.close();
+		}
+	}
+}
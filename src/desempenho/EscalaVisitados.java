@@ -0,0 +1,87 @@
+package desempenho;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import model.ArmazenamentoCompacto;
+import model.Labirinto;
+import controller.AgenteBusca;
+import controller.AgenteBuscaAbstrato.Busca;
+
+/**
+ * EscalaVisitados
+ * Mede como o custo da verificação de visitas cresce com o labirinto. Para cada tamanho
+ * uma busca em amplitude vai de um canto ao oposto e o tempo por célula visitada é
+ * impresso: constante com o registro de visitas O(1) do agente, e crescendo com o número
+ * de células na lista encadeada que o agente usava antes, repetida aqui sobre a mesma
+ * ordem de visitas para comparação.
+ *
+ * Uso: java desempenho.EscalaVisitados [tamanho ...] (padrão 50 100 200 400 800 1600)
+ *
+ * A lista encadeada só é medida até LIMITE_LISTA células.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class EscalaVisitados {
+
+	private static final int LIMITE_LISTA = 200 * 200;
+	private static final int REPETICOES = 5;
+
+	public static void main(String[] args) {
+		int[] tamanhos = args.length == 0 ? new int[]{50, 100, 200, 400, 800, 1600} : new int[args.length];
+		for(int i = 0; i < args.length; i++)
+			tamanhos[i] = Integer.parseInt(args[i]);
+
+		System.out.println("tamanho     células  registro ns/célula  lista ns/célula");
+		for(int tamanho : tamanhos) {
+			Labirinto labirinto = new Labirinto(tamanho, new ArmazenamentoCompacto());
+			labirinto.gerarLabirintoHuntandKill(tamanho);
+			int[] inicio = {0, 0};
+			int[] objetivo = {tamanho - 1, tamanho - 1};
+			AgenteBusca agente = new AgenteBusca(inicio, objetivo, labirinto);
+			agente.setTipoBusca(Busca.AMPLITUDE);
+
+			//Menor tempo de algumas buscas, descontando o aquecimento da JVM
+			long registro = Long.MAX_VALUE;
+			for(int r = 0; r < REPETICOES; r++) {
+				long inicioNs = System.nanoTime();
+				agente.iniciarBusca();
+				registro = Math.min(registro, System.nanoTime() - inicioNs);
+			}
+			List<int[]> visitados = agente.getVisitados();
+			int quantidade = visitados.size();
+
+			String lista = "-";
+			if(quantidade <= LIMITE_LISTA) {
+				long inicioNs = System.nanoTime();
+				int repetidas = verificarComLista(visitados);
+				long tempo = System.nanoTime() - inicioNs;
+				if(repetidas != 0)
+					throw new IllegalStateException("Célula visitada duas vezes");
+				lista = String.format("%.1f", (double) tempo / quantidade);
+			}
+			System.out.printf("%7d  %10d  %18.1f  %15s%n", tamanho, quantidade, (double) registro / quantidade, lista);
+		}
+	}
+
+	/*
+	 * Verificação antiga: antes de cada visita percorre a lista de todas as visitas anteriores.
+	 * Retorna o número de visitas encontradas já na lista.
+	 */
+	private static int verificarComLista(List<int[]> ordem) {
+		LinkedList<int[]> lista = new LinkedList<int[]>();
+		int repetidas = 0;
+		for(int i = 0; i < ordem.size(); i++) {
+			int[] celula = ordem.get(i);
+			for(int[] visitada : lista) {
+				if(visitada[0] == celula[0] && visitada[1] == celula[1]) {
+					repetidas++;
+					break;
+				}
+			}
+			lista.add(celula);
+		}
+		return repetidas;
+	}
+}
@@ -0,0 +1,194 @@
+package desempenho;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import model.GeradorEller;
+import model.ReceptorLinhas;
+
+/**
+ * FluxoEller
+ * Mede o GeradorEller gerando um labirinto LARGURA x ALTURA linha a linha:
+ *
+ * 1 - Para um receptor que confere, também linha a linha, que o labirinto é perfeito:
+ *     nenhuma passagem fecha um ciclo, todo conjunto de células chega à linha
+ *     seguinte e a última linha fica toda conectada;
+ * 2 - Para um canal que apenas descarta os bytes, medindo a vazão da gravação.
+ *
+ * Para cada execução imprime o tempo, os nanossegundos por célula e os bytes alocados
+ * no heap durante a geração, medidos com o contador de alocação por thread da JVM
+ * (com.sun.management.ThreadMXBean): a memória não deve crescer com a altura.
+ *
+ * Uso: java desempenho.FluxoEller [largura [altura]] (padrão 2000 20000)
+ *
+ * Termina com código 1 se o labirinto não for perfeito.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class FluxoEller {
+
+	public static void main(String[] args) throws IOException {
+		int largura = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		long altura = args.length > 1 ? Long.parseLong(args[1]) : 20000;
+		com.sun.management.ThreadMXBean threads =
+				(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+		double celulas = (double) largura * altura;
+
+		//Aquecimento da JVM com um labirinto menor
+		new GeradorEller(largura, 1).gerar(Math.min(altura, 1000), new Verificador(largura));
+
+		System.out.println("destino           ms  ns/célula  bytes alocados  perfeito");
+		Verificador verificador = new Verificador(largura);
+		long antes = threads.getThreadAllocatedBytes(thread);
+		long inicio = System.nanoTime();
+		new GeradorEller(largura, 2).gerar(altura, verificador);
+		long tempo = System.nanoTime() - inicio;
+		long alocados = threads.getThreadAllocatedBytes(thread) - antes;
+		boolean perfeito = verificador.isPerfeito(altura);
+		System.out.printf("%-11s  %9.1f  %9.2f  %14d  %s%n", "verificador", tempo / 1e6, tempo / celulas,
+				alocados, perfeito ? "sim" : "NÃO");
+
+		Descarte descarte = new Descarte();
+		antes = threads.getThreadAllocatedBytes(thread);
+		inicio = System.nanoTime();
+		new GeradorEller(largura, 2).gerar(altura, descarte);
+		tempo = System.nanoTime() - inicio;
+		alocados = threads.getThreadAllocatedBytes(thread) - antes;
+		System.out.printf("%-11s  %9.1f  %9.2f  %14d  -%n", "canal", tempo / 1e6, tempo / celulas, alocados);
+		System.out.printf("%d bytes gravados, %.1f MB/s%n", descarte.bytes, descarte.bytes / (tempo / 1e3));
+
+		if(!perfeito) {
+			System.out.println("FALHA: o labirinto gerado não é perfeito");
+			System.exit(1);
+		}
+	}
+
+	/*
+	 * Confere o labirinto com memória O(LARGURA): os nós 0..LARGURA-1 da união são os
+	 * conjuntos da linha anterior e os nós LARGURA..2*LARGURA-1 as células da linha atual
+	 */
+	private static final class Verificador implements ReceptorLinhas {
+		private final int largura;
+		private final int[] pais;
+		private final int[] rotulos;
+		private final int[] novos;
+		private final boolean[] chegou;
+		private final byte[] anterior;
+		private boolean perfeito;
+		private long linhas;
+
+		Verificador(int largura) {
+			this.largura = largura;
+			this.pais = new int[2 * largura];
+			this.rotulos = new int[largura];
+			this.novos = new int[2 * largura];
+			this.chegou = new boolean[largura];
+			this.anterior = new byte[(largura + 3) >>> 2];
+			this.perfeito = true;
+		}
+
+		@Override
+		public void receberLinha(long y, byte[] linha) {
+			int largura = this.largura;
+			for(int i = 0; i < 2 * largura; i++)
+				this.pais[i] = i;
+
+			//Passagens sul da linha anterior ligam seus conjuntos às células desta linha
+			if(y > 0) {
+				for(int x = 0; x < largura; x++)
+					this.chegou[x] = false;
+				for(int x = 0; x < largura; x++) {
+					if(passagem(this.anterior, x, 2)) {
+						this.unir(this.rotulos[x], largura + x);
+						this.chegou[this.rotulos[x]] = true;
+					}
+				}
+				//Um conjunto que não desce fica isolado do resto do labirinto
+				for(int x = 0; x < largura; x++)
+					if(!this.chegou[this.rotulos[x]])
+						this.perfeito = false;
+			}
+			for(int x = 0; x + 1 < largura; x++)
+				if(passagem(linha, x, 1))
+					this.unir(largura + x, largura + x + 1);
+			//Passagem leste na última coluna sairia do labirinto
+			if(passagem(linha, largura - 1, 1))
+				this.perfeito = false;
+
+			//Rótulos da linha atual, de 0 a LARGURA - 1
+			for(int i = 0; i < 2 * largura; i++)
+				this.novos[i] = -1;
+			int proximo = 0;
+			for(int x = 0; x < largura; x++) {
+				int raiz = this.raiz(largura + x);
+				if(this.novos[raiz] < 0)
+					this.novos[raiz] = proximo++;
+				this.rotulos[x] = this.novos[raiz];
+			}
+			System.arraycopy(linha, 0, this.anterior, 0, this.anterior.length);
+			this.linhas = y + 1;
+		}
+
+		boolean isPerfeito(long altura) {
+			if(this.linhas != altura)
+				return false;
+			//Na última linha não há passagem sul e todas as células estão conectadas
+			for(int x = 0; x < this.largura; x++)
+				if(passagem(this.anterior, x, 2) || this.rotulos[x] != 0)
+					return false;
+			return this.perfeito;
+		}
+
+		private static boolean passagem(byte[] linha, int x, int bit) {
+			return (linha[x >>> 2] >>> ((x & 3) << 1) & bit) != 0;
+		}
+
+		/*
+		 * Une os nós A e B; se já estavam unidos a passagem fecha um ciclo
+		 */
+		private void unir(int a, int b) {
+			int ra = this.raiz(a);
+			int rb = this.raiz(b);
+			if(ra == rb)
+				this.perfeito = false;
+			else
+				this.pais[rb] = ra;
+		}
+
+		private int raiz(int no) {
+			while(this.pais[no] != no) {
+				this.pais[no] = this.pais[this.pais[no]];
+				no = this.pais[no];
+			}
+			return no;
+		}
+	}
+
+	/*
+	 * Canal que conta e descarta os bytes
+	 */
+	private static final class Descarte implements WritableByteChannel {
+		private long bytes;
+
+		@Override
+		public int write(ByteBuffer origem) {
+			int quantidade = origem.remaining();
+			origem.position(origem.limit());
+			this.bytes += quantidade;
+			return quantidade;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
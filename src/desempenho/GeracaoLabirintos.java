@@ -0,0 +1,115 @@
+package desempenho;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import model.ArmazenamentoCelulas;
+import model.ArmazenamentoCompacto;
+import model.ArmazenamentoLabirinto;
+import model.ArmazenamentoMapeado;
+import model.Labirinto;
+import controller.BuscaParalela;
+
+/**
+ * GeracaoLabirintos
+ * Mede os geradores de labirinto: para cada técnica gera um labirinto TAMANHO x TAMANHO
+ * no armazenamento escolhido e imprime o tempo, os nanossegundos por célula e os bytes
+ * alocados no heap além do armazenamento das paredes, medidos com o contador de alocação
+ * por thread da JVM (com.sun.management.ThreadMXBean). Cada técnica é executada antes
+ * num labirinto pequeno para aquecer a JVM.
+ *
+ * Cada labirinto gerado é conferido como labirinto perfeito: N² - 1 passagens e todas as
+ * células alcançáveis a partir de 0, 0.
+ *
+ * Uso: java desempenho.GeracaoLabirintos [tamanho [compacto|celulas|mapeado]]
+ * (padrão 2000 compacto)
+ *
+ * Termina com código 1 se algum labirinto não for perfeito.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class GeracaoLabirintos {
+
+	private static final String[] TECNICAS = {"recursivo", "huntandkill", "prim"};
+
+	public static void main(String[] args) throws IOException {
+		int tamanho = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		String tipo = args.length > 1 ? args[1] : "compacto";
+		com.sun.management.ThreadMXBean threads =
+				(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+
+		ArmazenamentoLabirinto armazenamento = criarArmazenamento(tipo);
+		try {
+			boolean falhou = false;
+			System.out.println("técnica        ms  ns/célula  bytes alocados  perfeito");
+			for(String tecnica : TECNICAS) {
+				Labirinto labirinto = new Labirinto(Math.min(tamanho, 200), armazenamento);
+				gerar(tecnica, labirinto, 1);
+				labirinto.setTamanho(tamanho);
+
+				//A geração recria as paredes; a memória delas é descontada dos bytes alocados
+				long antes = threads.getThreadAllocatedBytes(thread);
+				long inicio = System.nanoTime();
+				gerar(tecnica, labirinto, 2);
+				long tempo = System.nanoTime() - inicio;
+				long alocados = threads.getThreadAllocatedBytes(thread) - antes - armazenamento.getMemoriaEstimada();
+
+				boolean perfeito = isPerfeito(labirinto);
+				falhou |= !perfeito;
+				System.out.printf("%-11s  %7.1f  %9.1f  %14d  %s%n", tecnica, tempo / 1e6,
+						(double) tempo / ((long) tamanho * tamanho), Math.max(0, alocados), perfeito ? "sim" : "NÃO");
+			}
+			if(falhou) {
+				System.out.println("FALHA: algum labirinto gerado não é perfeito");
+				System.exit(1);
+			}
+		} finally {
+			if(armazenamento instanceof ArmazenamentoMapeado)
+				((ArmazenamentoMapeado) armazenamento).close();
+		}
+	}
+
+	private static ArmazenamentoLabirinto criarArmazenamento(String tipo) throws IOException {
+		if(tipo.equals("celulas"))
+			return new ArmazenamentoCelulas();
+		if(tipo.equals("mapeado"))
+			return new ArmazenamentoMapeado();
+		return new ArmazenamentoCompacto();
+	}
+
+	private static void gerar(String tecnica, Labirinto labirinto, long semente) {
+		if(tecnica.equals("recursivo"))
+			labirinto.gerarLabirintoRecursivo(semente);
+		else if(tecnica.equals("huntandkill"))
+			labirinto.gerarLabirintoHuntandKill(semente);
+		else if(tecnica.equals("prim"))
+			labirinto.gerarLabirintoPrim(semente);
+		else
+			throw new IllegalArgumentException("Técnica desconhecida: " + tecnica);
+	}
+
+	/*
+	 * Um labirinto perfeito é uma árvore: N² - 1 passagens e todas as células conectadas
+	 */
+	private static boolean isPerfeito(Labirinto labirinto) {
+		int tamanho = labirinto.getTamanho();
+		long passagens = 0;
+		for(int y = 0; y < tamanho; y++)
+			for(int x = 0; x < tamanho; x++) {
+				if(labirinto.movimentoValido(x, y, Labirinto.L))
+					passagens++;
+				if(labirinto.movimentoValido(x, y, Labirinto.S))
+					passagens++;
+			}
+		if(passagens != (long) tamanho * tamanho - 1)
+			return false;
+		BuscaParalela busca = new BuscaParalela(1);
+		try {
+			return busca.calcular(labirinto, 0, 0).getAlcancadas() == (long) tamanho * tamanho;
+		} finally {
+			busca.close();
+		}
+	}
+}
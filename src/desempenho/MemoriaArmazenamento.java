@@ -0,0 +1,81 @@
+package desempenho;
+
+import java.io.IOException;
+
+import model.ArmazenamentoCelulas;
+import model.ArmazenamentoCompacto;
+import model.ArmazenamentoLabirinto;
+import model.ArmazenamentoMapeado;
+import model.Labirinto;
+
+/**
+ * MemoriaArmazenamento
+ * Compara a memória ocupada pelos armazenamentos de paredes do Labirinto: para cada
+ * tamanho informado mede o heap ocupado por um labirinto em cada layout e o
+ * compara com getMemoriaEstimada.
+ *
+ * Uso: java desempenho.MemoriaArmazenamento [tamanho ...] (padrão 500 1000 2000)
+ *
+ * Termina com código 1 se o ArmazenamentoCompacto não ocupar menos heap que a matriz
+ * de Células.
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class MemoriaArmazenamento {
+
+	public static void main(String[] args) throws IOException {
+		int[] tamanhos = args.length == 0 ? new int[]{500, 1000, 2000} : new int[args.length];
+		for(int i = 0; i < args.length; i++)
+			tamanhos[i] = Integer.parseInt(args[i]);
+
+		boolean falhou = false;
+		System.out.println("tamanho  armazenamento  heap medido  estimado  bytes/célula");
+		for(int tamanho : tamanhos) {
+			long celulas = medir(tamanho, new ArmazenamentoCelulas());
+			long compacto = medir(tamanho, new ArmazenamentoCompacto());
+			ArmazenamentoMapeado mapeado = new ArmazenamentoMapeado();
+			try {
+				medir(tamanho, mapeado);
+				System.out.printf("%7d  %-13s  arquivo de %d bytes%n", tamanho, "mapeado", mapeado.getTamanhoArquivo());
+			} finally {
+				mapeado.close();
+			}
+			if(compacto >= celulas)
+				falhou = true;
+		}
+		if(falhou) {
+			System.out.println("FALHA: o armazenamento compacto não ocupou menos memória");
+			System.exit(1);
+		}
+	}
+
+	/*
+	 * Cria um labirinto TAMANHO x TAMANHO no ARMAZENAMENTO e imprime o heap ocupado
+	 * por ele. Retorna o heap medido.
+	 */
+	private static long medir(int tamanho, ArmazenamentoLabirinto armazenamento) {
+		long antes = memoriaUsada();
+		//O labirinto fechado ocupa o mesmo que um gerado: o layout não depende das passagens
+		Labirinto labirinto = new Labirinto(tamanho, armazenamento);
+		long medido = memoriaUsada() - antes;
+		long estimado = armazenamento.getMemoriaEstimada();
+		String nome = armazenamento.getClass().getSimpleName().replace("Armazenamento", "").toLowerCase();
+		System.out.printf("%7d  %-13s  %11d  %8d  %12.2f%n", tamanho, nome, medido, estimado,
+				(double) medido / ((long) tamanho * tamanho));
+		//Mantém o labirinto alcançável até depois da medição
+		if(labirinto.getTamanho() != tamanho)
+			throw new IllegalStateException();
+		return medido;
+	}
+
+	private static long memoriaUsada() {
+		Runtime runtime = Runtime.getRuntime();
+		long usada = Long.MAX_VALUE;
+		for(int i = 0; i < 4; i++) {
+			System.gc();
+			usada = Math.min(usada, runtime.totalMemory() - runtime.freeMemory());
+		}
+		return usada;
+	}
+}
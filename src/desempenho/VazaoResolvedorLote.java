@@ -0,0 +1,78 @@
+package desempenho;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import model.ArmazenamentoCompacto;
+import model.Labirinto;
+import controller.ResolvedorLote;
+
+/**
+ * VazaoResolvedorLote
+ * Mede a vazão do ResolvedorLote de 1 a N threads: o mesmo lote de consultas aleatórias é
+ * resolvido com executores de 1 a N threads e são impressos o melhor tempo de algumas
+ * repetições, as consultas por segundo e o ganho sobre uma thread. Os custos são conferidos
+ * com os de uma thread.
+ *
+ * Uso: java desempenho.VazaoResolvedorLote [tamanho [consultas [threads]]]
+ * (padrão 500 2000 e o número de processadores)
+ *
+ * @author André M. Ribeiro dos Santos
+ * @author Jorge Aikes Junior
+ */
+public class VazaoResolvedorLote {
+
+	private static final int REPETICOES = 3;
+
+	public static void main(String[] args) {
+		int tamanho = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+		int quantidade = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		int maximo = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+		Labirinto labirinto = new Labirinto(tamanho, new ArmazenamentoCompacto());
+		labirinto.gerarLabirintoPrim(tamanho);
+		Random aleatorio = new Random(tamanho);
+		int[][] consultas = new int[quantidade][];
+		for(int i = 0; i < quantidade; i++)
+			consultas[i] = new int[]{aleatorio.nextInt(tamanho), aleatorio.nextInt(tamanho),
+					aleatorio.nextInt(tamanho), aleatorio.nextInt(tamanho)};
+
+		//Aquecimento da JVM, para que a medição de uma thread não pague a compilação
+		ResolvedorLote aquecimento = new ResolvedorLote(labirinto);
+		try {
+			aquecimento.calcularCustos(consultas);
+		} finally {
+			aquecimento.close();
+		}
+
+		System.out.println("processadores disponíveis: " + Runtime.getRuntime().availableProcessors());
+		System.out.println("threads       ms  consultas/s  ganho");
+		int[] referencia = null;
+		double base = 0;
+		for(int threads = 1; threads <= maximo; threads++) {
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			ResolvedorLote resolvedor = new ResolvedorLote(labirinto, executor);
+			try {
+				long melhor = Long.MAX_VALUE;
+				int[] custos = null;
+				for(int r = 0; r < REPETICOES; r++) {
+					long inicio = System.nanoTime();
+					custos = resolvedor.calcularCustos(consultas);
+					melhor = Math.min(melhor, System.nanoTime() - inicio);
+				}
+				if(referencia == null) {
+					referencia = custos;
+					base = melhor;
+				} else if(!Arrays.equals(referencia, custos))
+					throw new IllegalStateException("Custos diferentes com " + threads + " threads");
+				System.out.printf("%7d  %7.1f  %11.0f  %5.2f%n", threads, melhor / 1e6,
+						quantidade / (melhor / 1e9), base / melhor);
+			} finally {
+				resolvedor.close();
+				executor.shutdown();
+			}
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package model;
+
+/**
+ * @author  André M. Ribeiro dos Santos
+ * @author  Jorge Aikes Junior
+ *
+ * Aleatorio
+ *
+ * Gerador pseudoaleatório determinístico (SplitMix64, o mesmo algoritmo do
+ * SplittableRandom do Java 8) usado na geração de labirintos: a mesma SEMENTE
+ * sempre gera o mesmo labirinto. Não é sincronizado nem aloca objetos, e
+ * dividir() deriva geradores independentes, por exemplo um por thread.
+ */
+public final class Aleatorio {
+
+    /*
+     * GAMA ~> incremento do estado a cada número gerado (razão áurea em 64 bits)
+     */
+    private static final long GAMA = 0x9E3779B97F4A7C15L;
+
+    private long estado;
+
+    /**
+     * Construtor padrão.
+     * @param semente Semente do gerador.
+     */
+    public Aleatorio(long semente) {
+        this.estado = semente;
+    }
+
+    /**
+     * Retorna o próximo número de 64 bits.
+     * @return Número pseudoaleatório.
+     */
+    public long proximoLong() {
+        long z = (estado += GAMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Retorna um inteiro uniforme entre 0 (inclusive) e LIMITE (exclusive).
+     * @param limite Limite superior, maior que 0.
+     * @return Número entre 0 e LIMITE - 1.
+     */
+    public int proximoInt(int limite) {
+        //Multiplicação pelo limite em vez do resto: viés desprezível para limites pequenos
+        return (int) (((proximoLong() >>> 33) * limite) >>> 31);
+    }
+
+    /**
+     * Retorna um novo gerador, independente deste, e avança este gerador.
+     * @return Gerador com semente derivada deste.
+     */
+    public Aleatorio dividir() {
+        return new Aleatorio(proximoLong());
+    }
+}
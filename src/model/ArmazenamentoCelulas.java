@@ -0,0 +1,78 @@
+package model;
+
+/**
+ * @author  André M. Ribeiro dos Santos
+ * @author  Jorge Aikes Junior
+ *
+ * ArmazenamentoCelulas
+ *
+ * Layout original do Labirinto: uma matriz NxN de objetos Celula, onde cada
+ * parede é guardada duas vezes, uma em cada célula vizinha.
+ */
+public class ArmazenamentoCelulas implements ArmazenamentoLabirinto {
+
+    /*
+     * Bytes aproximados por célula: cabeçalho (12) e os quatro booleanos de
+     * Celula, alinhados em 16, mais a referência na linha da matriz (4). Cada linha é um vetor com
+     * cabeçalho próprio (16) referenciado pela matriz (4).
+     */
+    private static final long BYTES_CELULA = 16 + 4;
+    private static final long BYTES_LINHA = 16 + 4;
+
+    private Celula[][] celulas;
+
+    @Override
+    public void reiniciar(int tamanho, boolean fechado) {
+        celulas = new Celula[tamanho][tamanho];
+        for (int y = 0; y < tamanho; y++)
+            for (int x = 0; x < tamanho; x++)
+                this.celulas[y][x] = new Celula(fechado);
+    }
+
+    @Override
+    public Celula getCelula(int x, int y) {
+        return celulas[y][x];
+    }
+
+    @Override
+    public boolean isParede(int x, int y, int sentido) {
+        switch (sentido) {
+            case Labirinto.N:
+                return celulas[y][x].isParedeNorte();
+            case Labirinto.S:
+                return celulas[y][x].isParedeSul();
+            case Labirinto.L:
+                return celulas[y][x].isParedeLeste();
+            default:
+                return celulas[y][x].isParedeOeste();
+        }
+    }
+
+    @Override
+    public boolean isFechada(int x, int y) {
+        return celulas[y][x].isFechada();
+    }
+
+    @Override
+    public void setParede(int x, int y, int sentido, boolean existe) {
+        int nx = x + Labirinto.DX[sentido];
+        int ny = y + Labirinto.DY[sentido];
+        boolean vizinha = ny >= 0 && ny < celulas.length && nx >= 0 && nx < celulas.length;
+
+        if (existe) {
+            celulas[y][x].construirParede(sentido);
+            if (vizinha)
+                celulas[ny][nx].construirParede(Labirinto.OPOSTO[sentido]);
+        } else {
+            celulas[y][x].destruirParede(sentido);
+            if (vizinha)
+                celulas[ny][nx].destruirParede(Labirinto.OPOSTO[sentido]);
+        }
+    }
+
+    @Override
+    public long getMemoriaEstimada() {
+        long n = celulas.length;
+        return 16 + n * BYTES_LINHA + n * n * BYTES_CELULA;
+    }
+}
@@ -0,0 +1,114 @@
+package model;
+
+/**
+ * @author  André M. Ribeiro dos Santos
+ * @author  Jorge Aikes Junior
+ *
+ * ArmazenamentoCompacto
+ *
+ * Guarda as paredes do labirinto em um vetor de long, com 2 bits por célula:
+ * bit 0 ~> passagem aberta ao LESTE
+ * bit 1 ~> passagem aberta ao SUL
+ *
+ * Cada parede compartilhada é guardada uma única vez: a parede NORTE de X, Y é
+ * a parede SUL de X, Y-1 e a parede OESTE de X, Y é a parede LESTE de X-1, Y.
+ * As bordas externas são sempre fechadas. Como os bits representam passagens,
+ * um vetor recém alocado (zerado) já é um labirinto com todas as paredes.
+ */
+public class ArmazenamentoCompacto implements ArmazenamentoLabirinto {
+
+    private static final int LESTE = 1;
+    private static final int SUL = 2;
+
+    private long[] paredes;
+    private int tamanho;
+
+    @Override
+    public void reiniciar(int tamanho, boolean fechado) {
+        long celulas = (long) tamanho * tamanho;
+        this.tamanho = tamanho;
+        this.paredes = new long[(int) ((celulas + 31) >>> 5)];
+
+        if (!fechado) {
+            for (int y = 0; y < tamanho; y++)
+                for (int x = 0; x < tamanho; x++)
+                    this.abrir(x, y, (x < tamanho - 1 ? LESTE : 0) | (y < tamanho - 1 ? SUL : 0));
+        }
+    }
+
+    @Override
+    public Celula getCelula(int x, int y) {
+        return new CelulaVirtual(this, x, y);
+    }
+
+    @Override
+    public boolean isParede(int x, int y, int sentido) {
+        switch (sentido) {
+            case Labirinto.N:
+                return y == 0 || !this.isAberta(x, y - 1, SUL);
+            case Labirinto.S:
+                return y == tamanho - 1 || !this.isAberta(x, y, SUL);
+            case Labirinto.L:
+                return x == tamanho - 1 || !this.isAberta(x, y, LESTE);
+            default:
+                return x == 0 || !this.isAberta(x - 1, y, LESTE);
+        }
+    }
+
+    @Override
+    public boolean isFechada(int x, int y) {
+        //Passagens ao LESTE e ao SUL na própria célula, ao OESTE e ao NORTE nas vizinhas
+        long celula = (long) y * tamanho + x;
+        return (this.passagens(celula) & (LESTE | SUL)) == 0
+                && (x == 0 || (this.passagens(celula - 1) & LESTE) == 0)
+                && (y == 0 || (this.passagens(celula - tamanho) & SUL) == 0);
+    }
+
+    @Override
+    public void setParede(int x, int y, int sentido, boolean existe) {
+        int nx = x + Labirinto.DX[sentido];
+        int ny = y + Labirinto.DY[sentido];
+        if (nx < 0 || nx >= tamanho || ny < 0 || ny >= tamanho)
+            return;
+
+        //A parede é guardada na célula mais ao norte/oeste do par
+        boolean horizontal = sentido == Labirinto.N || sentido == Labirinto.S;
+        int bit = horizontal ? SUL : LESTE;
+        if (sentido == Labirinto.N || sentido == Labirinto.O) {
+            x = nx;
+            y = ny;
+        }
+
+        if (existe)
+            this.fechar(x, y, bit);
+        else
+            this.abrir(x, y, bit);
+    }
+
+    @Override
+    public long getMemoriaEstimada() {
+        return 16 + 8L * paredes.length;
+    }
+
+    /*
+     * Acesso aos bits de passagem da célula X, Y
+     */
+    private int passagens(long celula) {
+        return (int) (paredes[(int) (celula >>> 5)] >>> ((celula & 31) << 1));
+    }
+
+    private boolean isAberta(int x, int y, int bit) {
+        long celula = (long) y * tamanho + x;
+        return (paredes[(int) (celula >>> 5)] >>> ((celula & 31) << 1) & bit) != 0;
+    }
+
+    private void abrir(int x, int y, int bits) {
+        long celula = (long) y * tamanho + x;
+        paredes[(int) (celula >>> 5)] |= (long) bits << ((celula & 31) << 1);
+    }
+
+    private void fechar(int x, int y, int bits) {
+        long celula = (long) y * tamanho + x;
+        paredes[(int) (celula >>> 5)] &= ~((long) bits << ((celula & 31) << 1));
+    }
+}
@@ -0,0 +1,68 @@
+package model;
+
+/**
+ * @author  André M. Ribeiro dos Santos
+ * @author  Jorge Aikes Junior
+ *
+ * ArmazenamentoLabirinto
+ *
+ * Representação interna das paredes de um Labirinto. O Labirinto delega a
+ * esta interface toda leitura e escrita de paredes, permitindo trocar o
+ * layout de memória (matriz de Células, vetor compacto de bits, ...) sem
+ * alterar os métodos de geração e de busca.
+ *
+ * Os sentidos usados são os mesmos do Labirinto: N, S, L e O.
+ */
+public interface ArmazenamentoLabirinto {
+
+    /**
+     * Reconstrói o armazenamento para um labirinto TAMANHO x TAMANHO.
+     * @param tamanho Dimensão do labirinto.
+     * @param fechado True se todas as paredes devem iniciar construídas.
+     */
+    void reiniciar(int tamanho, boolean fechado);
+
+    /**
+     * Retorna a célula na linha Y, coluna X.
+     * @param x Posição X da célula no labirinto
+     * @param y Posição y da célula no labirinto
+     * @return Célula X, Y (pode ser uma visão sobre o armazenamento).
+     */
+    Celula getCelula(int x, int y);
+
+    /**
+     * Verifica se existe parede na célula X, Y no sentido indicado.
+     * @param x Posição X da célula no labirinto
+     * @param y Posição y da célula no labirinto
+     * @param sentido Orientação da parede N, S, L, O
+     * @return True se a parede existir.
+     */
+    boolean isParede(int x, int y, int sentido);
+
+    /**
+     * Verifica se a célula X, Y não tem nenhuma passagem, lendo o próprio
+     * armazenamento. Os geradores usam esta consulta como marca de célula já
+     * visitada, sem memória extra por célula.
+     * @param x Posição X da célula no labirinto
+     * @param y Posição y da célula no labirinto
+     * @return True se as quatro paredes da célula existem.
+     */
+    boolean isFechada(int x, int y);
+
+    /**
+     * Constrói ou destrói a parede entre a célula X, Y e sua adjacente no
+     * sentido indicado, mantendo os dois lados da parede consistentes.
+     * @param x Posição X da célula no labirinto
+     * @param y Posição y da célula no labirinto
+     * @param sentido Orientação da parede N, S, L, O
+     * @param existe True para construir a parede, False para destruí-la.
+     */
+    void setParede(int x, int y, int sentido, boolean existe);
+
+    /**
+     * Estimativa, em bytes, da memória ocupada pelo armazenamento
+     * (JVM 64 bits com referências comprimidas).
+     * @return Número aproximado de bytes ocupados.
+     */
+    long getMemoriaEstimada();
+}
@@ -0,0 +1,210 @@
+package model;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * @author  André M. Ribeiro dos Santos
+ * @author  Jorge Aikes Junior
+ *
+ * ArmazenamentoMapeado
+ *
+ * Guarda as paredes do labirinto em um arquivo mapeado em memória, permitindo
+ * labirintos maiores que o heap da JVM. O formato dos bits é o mesmo do
+ * ArmazenamentoCompacto (2 bits de passagem por célula, 4 células por byte,
+ * bordas sempre fechadas).
+ *
+ * Um MappedByteBuffer endereça no máximo 2 GB, então o arquivo é dividido em
+ * regiões de REGIAO bytes, mapeadas separadamente.
+ *
+ * O AgenteBusca resolve labirintos deste armazenamento guardando também o estado da
+ * busca em arquivo mapeado (EspacoBuscaMapeado), com 4 bits por célula.
+ */
+public class ArmazenamentoMapeado implements ArmazenamentoLabirinto, Closeable {
+
+    private static final int LESTE = 1;
+    private static final int SUL = 2;
+
+    private static final int BITS_REGIAO = 30;
+    private static final long REGIAO = 1L << BITS_REGIAO;
+
+    private final RandomAccessFile arquivo;
+    private final FileChannel canal;
+    private MappedByteBuffer[] regioes;
+
+    private int tamanho;
+    private long bytesTotal;
+
+    /**
+     * Construtor parametrizado.
+     * @param arquivo Arquivo onde as paredes serão guardadas. Seu conteúdo é
+     * descartado a cada reinício do labirinto.
+     * @throws IOException Caso o arquivo não possa ser aberto.
+     */
+    public ArmazenamentoMapeado(File arquivo) throws IOException {
+        this.arquivo = new RandomAccessFile(arquivo, "rw");
+        this.canal = this.arquivo.getChannel();
+        this.regioes = new MappedByteBuffer[0];
+    }
+
+    /**
+     * Construtor padrão, usando um arquivo temporário removido ao fim da
+     * execução.
+     * @throws IOException Caso o arquivo temporário não possa ser criado.
+     */
+    public ArmazenamentoMapeado() throws IOException {
+        this(arquivoTemporario());
+    }
+
+    private static File arquivoTemporario() throws IOException {
+        File temporario = File.createTempFile("labirinto", ".bin");
+        temporario.deleteOnExit();
+        return temporario;
+    }
+
+    @Override
+    public void reiniciar(int tamanho, boolean fechado) {
+        long celulas = (long) tamanho * tamanho;
+        this.tamanho = tamanho;
+        this.bytesTotal = (celulas + 3) >>> 2;
+
+        try {
+            //Truncar e estender o arquivo garante que todo o conteúdo é zero
+            this.regioes = new MappedByteBuffer[0];
+            this.arquivo.setLength(0);
+            this.arquivo.setLength(Math.max(bytesTotal, 1));
+
+            int quantidade = (int) ((bytesTotal + REGIAO - 1) >>> BITS_REGIAO);
+            MappedByteBuffer[] mapeadas = new MappedByteBuffer[quantidade];
+            for (int i = 0; i < quantidade; i++) {
+                long inicio = (long) i << BITS_REGIAO;
+                mapeadas[i] = canal.map(FileChannel.MapMode.READ_WRITE, inicio,
+                        Math.min(REGIAO, bytesTotal - inicio));
+            }
+            this.regioes = mapeadas;
+        } catch (IOException e) {
+            throw new IllegalStateException("Não foi possível mapear o arquivo do labirinto", e);
+        }
+
+        if (!fechado) {
+            for (int y = 0; y < tamanho; y++)
+                for (int x = 0; x < tamanho; x++)
+                    this.abrir(x, y, (x < tamanho - 1 ? LESTE : 0) | (y < tamanho - 1 ? SUL : 0));
+        }
+    }
+
+    @Override
+    public Celula getCelula(int x, int y) {
+        return new CelulaVirtual(this, x, y);
+    }
+
+    @Override
+    public boolean isParede(int x, int y, int sentido) {
+        switch (sentido) {
+            case Labirinto.N:
+                return y == 0 || !this.isAberta(x, y - 1, SUL);
+            case Labirinto.S:
+                return y == tamanho - 1 || !this.isAberta(x, y, SUL);
+            case Labirinto.L:
+                return x == tamanho - 1 || !this.isAberta(x, y, LESTE);
+            default:
+                return x == 0 || !this.isAberta(x - 1, y, LESTE);
+        }
+    }
+
+    @Override
+    public boolean isFechada(int x, int y) {
+        //Passagens ao LESTE e ao SUL na própria célula, ao OESTE e ao NORTE nas vizinhas
+        long celula = (long) y * tamanho + x;
+        return (this.passagens(celula) & (LESTE | SUL)) == 0
+                && (x == 0 || (this.passagens(celula - 1) & LESTE) == 0)
+                && (y == 0 || (this.passagens(celula - tamanho) & SUL) == 0);
+    }
+
+    @Override
+    public void setParede(int x, int y, int sentido, boolean existe) {
+        int nx = x + Labirinto.DX[sentido];
+        int ny = y + Labirinto.DY[sentido];
+        if (nx < 0 || nx >= tamanho || ny < 0 || ny >= tamanho)
+            return;
+
+        //A parede é guardada na célula mais ao norte/oeste do par
+        boolean horizontal = sentido == Labirinto.N || sentido == Labirinto.S;
+        int bit = horizontal ? SUL : LESTE;
+        if (sentido == Labirinto.N || sentido == Labirinto.O) {
+            x = nx;
+            y = ny;
+        }
+
+        if (existe)
+            this.fechar(x, y, bit);
+        else
+            this.abrir(x, y, bit);
+    }
+
+    /**
+     * Apenas os descritores das regiões ficam no heap; as paredes ocupam
+     * getTamanhoArquivo() bytes fora dele.
+     */
+    @Override
+    public long getMemoriaEstimada() {
+        return 16 + 68L * regioes.length;
+    }
+
+    /**
+     * Retorna o tamanho, em bytes, do arquivo mapeado.
+     * @return Bytes ocupados pelas paredes no arquivo.
+     */
+    public long getTamanhoArquivo() {
+        return bytesTotal;
+    }
+
+    /**
+     * Libera o arquivo. O labirinto não pode mais ser usado depois disso.
+     */
+    @Override
+    public void close() throws IOException {
+        this.regioes = new MappedByteBuffer[0];
+        this.canal.close();
+        this.arquivo.close();
+    }
+
+    /*
+     * Acesso aos bits de passagem da célula X, Y
+     */
+    private int passagens(long celula) {
+        return this.ler(celula >>> 2) >>> ((celula & 3) << 1);
+    }
+
+    private boolean isAberta(int x, int y, int bit) {
+        long celula = (long) y * tamanho + x;
+        return (this.ler(celula >>> 2) >>> ((celula & 3) << 1) & bit) != 0;
+    }
+
+    private void abrir(int x, int y, int bits) {
+        long celula = (long) y * tamanho + x;
+        long posicao = celula >>> 2;
+        this.escrever(posicao, this.ler(posicao) | bits << ((celula & 3) << 1));
+    }
+
+    private void fechar(int x, int y, int bits) {
+        long celula = (long) y * tamanho + x;
+        long posicao = celula >>> 2;
+        this.escrever(posicao, this.ler(posicao) & ~(bits << ((celula & 3) << 1)));
+    }
+
+    /*
+     * Acesso a um byte do arquivo, localizando a região que o contém
+     */
+    private int ler(long posicao) {
+        return regioes[(int) (posicao >>> BITS_REGIAO)].get((int) (posicao & (REGIAO - 1))) & 0xFF;
+    }
+
+    private void escrever(long posicao, int valor) {
+        regioes[(int) (posicao >>> BITS_REGIAO)].put((int) (posicao & (REGIAO - 1)), (byte) valor);
+    }
+}
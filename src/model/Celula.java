@@ -8,15 +8,14 @@ package model;
  * 
  * Celula
  * Representação de unidade do Labirinto
- * com 4 váriaveis booleanas, 4 representando a presença das paredes Norte,
- * Sul, Leste e Oeste e 1 representando se a célula já voi visitada.
+ * com 4 váriaveis booleanas representando a presença das paredes Norte,
+ * Sul, Leste e Oeste.
  * 
  */
 
 public class Celula {
 
     private boolean paredeNorte, paredeSul, paredeLeste, paredeOeste;
-    private boolean visitada;
 
     /** 
      * Construtor opcional.
@@ -26,7 +25,6 @@ public class Celula {
         this.paredeOeste = fechada;
         this.paredeNorte = fechada;
         this.paredeSul = fechada;
-        this.visitada = false;
     }
 
     /** 
@@ -36,23 +34,7 @@ public class Celula {
         this(true);
     }
     
-    /**
-     * Verifica se a célula foi visitada.
-     * @return True se a célula já foi visitada, False de outra forma.
-     */
-    public boolean isVisitada() {
-        return visitada;
-    }
-    
-    /**
-     * Confirma a célula como visitada
-     * @param visitada True se a célula está sendo visitada
-     */
-    public void setVisitada(boolean visitada) {
-        this.visitada = visitada;
-    }
-    
-    
+
     /**
      * Encapsulamento da destruição das paredes.
      * Muda o estado da parede para falso (não existente).
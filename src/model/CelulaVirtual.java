@@ -0,0 +1,57 @@
+package model;
+
+/**
+ * @author  André M. Ribeiro dos Santos
+ * @author  Jorge Aikes Junior
+ *
+ * CelulaVirtual
+ * Visão de uma célula X, Y sobre um armazenamento que não guarda objetos
+ * Celula. Leituras e escritas são repassadas ao armazenamento, portanto
+ * alterar uma parede também altera o lado correspondente da célula vizinha.
+ */
+class CelulaVirtual extends Celula {
+
+    private final ArmazenamentoLabirinto armazenamento;
+    private final int x, y;
+
+    CelulaVirtual(ArmazenamentoLabirinto armazenamento, int x, int y) {
+        this.armazenamento = armazenamento;
+        this.x = x;
+        this.y = y;
+    }
+
+    @Override
+    public void destruirParede(int sentido) {
+        armazenamento.setParede(x, y, sentido, false);
+    }
+
+    @Override
+    public void construirParede(int sentido) {
+        armazenamento.setParede(x, y, sentido, true);
+    }
+
+    @Override
+    public void alterarParede(int sentido) {
+        armazenamento.setParede(x, y, sentido, !armazenamento.isParede(x, y, sentido));
+    }
+
+    @Override
+    public boolean isParedeLeste() {
+        return armazenamento.isParede(x, y, Labirinto.L);
+    }
+
+    @Override
+    public boolean isParedeNorte() {
+        return armazenamento.isParede(x, y, Labirinto.N);
+    }
+
+    @Override
+    public boolean isParedeOeste() {
+        return armazenamento.isParede(x, y, Labirinto.O);
+    }
+
+    @Override
+    public boolean isParedeSul() {
+        return armazenamento.isParede(x, y, Labirinto.S);
+    }
+}
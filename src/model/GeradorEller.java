@@ -0,0 +1,204 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * @author  André M. Ribeiro dos Santos
+ * @author  Jorge Aikes Junior
+ *
+ * GeradorEller
+ *
+ * Gera labirintos perfeitos de LARGURA colunas e altura arbitrária pelo
+ * algoritmo de Eller, uma linha por vez. Cada coluna da linha atual pertence
+ * a um CONJUNTO de células já conectadas pelas linhas anteriores:
+ *
+ * 1 - Une, ao acaso, células vizinhas de conjuntos diferentes (passagem leste)
+ * 2 - Abre ao acaso passagens para o sul, ao menos uma por conjunto
+ * 3 - Na linha seguinte, as colunas que receberam passagem sul mantém o
+ *     conjunto e as demais começam um conjunto novo
+ * 4 - Na última linha une todas as células vizinhas de conjuntos diferentes
+ *
+ * Apenas a linha atual é guardada: a memória é O(LARGURA) qualquer que seja a
+ * altura, e cada linha vai direto para um ReceptorLinhas ou para um canal.
+ * Quando a LARGURA é múltipla de 4, as linhas gravadas em sequência formam o
+ * mesmo conteúdo do arquivo de um ArmazenamentoMapeado.
+ */
+public class GeradorEller {
+
+    private static final int LESTE = 1;
+    private static final int SUL = 2;
+
+    private final int largura;
+    private final Aleatorio aleatorio;
+
+    /*
+     * Estado da linha atual, todos com LARGURA posições:
+     * conjuntos ~> conjunto de cada coluna
+     * pais      ~> união dos conjuntos durante a linha (union-find)
+     * restantes ~> colunas de cada conjunto ainda não decididas para o sul
+     * desceu    ~> conjunto que já tem passagem para o sul / conjunto em uso
+     * linha     ~> passagens empacotadas da linha
+     */
+    private final int[] conjuntos;
+    private final int[] pais;
+    private final int[] restantes;
+    private final boolean[] desceu;
+    private final byte[] linha;
+
+    /*
+     * Bits sorteados ainda não usados: cada decisão da linha gasta um bit
+     */
+    private long bits;
+    private int quantidadeBits;
+
+    /**
+     * Construtor parametrizado.
+     * @param largura Número de colunas do labirinto.
+     * @param aleatorio Gerador usado nos sorteios.
+     */
+    public GeradorEller(int largura, Aleatorio aleatorio) {
+        if (largura < 1)
+            throw new IllegalArgumentException("Largura deve ser positiva: " + largura);
+        this.largura = largura;
+        this.aleatorio = aleatorio;
+        this.conjuntos = new int[largura];
+        this.pais = new int[largura];
+        this.restantes = new int[largura];
+        this.desceu = new boolean[largura];
+        this.linha = new byte[this.getBytesLinha()];
+    }
+
+    /**
+     * Construtor padrão, de forma determinística: a mesma SEMENTE, largura e
+     * altura sempre geram o mesmo labirinto.
+     * @param largura Número de colunas do labirinto.
+     * @param semente Semente do gerador pseudoaleatório.
+     */
+    public GeradorEller(int largura, long semente) {
+        this(largura, new Aleatorio(semente));
+    }
+
+    /**
+     * Gera um labirinto de ALTURA linhas, entregando cada linha ao RECEPTOR.
+     * @param altura Número de linhas.
+     * @param receptor Destino das linhas.
+     * @throws IOException Caso o receptor não consiga gravar uma linha.
+     */
+    public void gerar(long altura, ReceptorLinhas receptor) throws IOException {
+        int largura = this.largura;
+        for (int x = 0; x < largura; x++)
+            conjuntos[x] = x;
+
+        for (long y = 0; y < altura; y++) {
+            boolean ultima = y == altura - 1;
+            Arrays.fill(linha, (byte) 0);
+            for (int i = 0; i < largura; i++)
+                pais[i] = i;
+
+            //Passagens leste entre conjuntos diferentes
+            for (int x = 0; x + 1 < largura; x++) {
+                int a = this.raiz(conjuntos[x]);
+                int b = this.raiz(conjuntos[x + 1]);
+                if (a != b && (ultima || this.sortear())) {
+                    pais[b] = a;
+                    this.abrir(x, LESTE);
+                }
+            }
+
+            if (!ultima) {
+                //Passagens sul, ao menos uma por conjunto
+                Arrays.fill(restantes, 0);
+                Arrays.fill(desceu, false);
+                for (int x = 0; x < largura; x++) {
+                    conjuntos[x] = this.raiz(conjuntos[x]);
+                    restantes[conjuntos[x]]++;
+                }
+                for (int x = 0; x < largura; x++) {
+                    int conjunto = conjuntos[x];
+                    restantes[conjunto]--;
+                    if (this.sortear() || (restantes[conjunto] == 0 && !desceu[conjunto])) {
+                        desceu[conjunto] = true;
+                        this.abrir(x, SUL);
+                    }
+                }
+
+                //Conjuntos da linha seguinte: colunas sem passagem sul recebem conjuntos livres
+                Arrays.fill(desceu, false);
+                for (int x = 0; x < largura; x++) {
+                    if (this.isAberta(x, SUL))
+                        desceu[conjuntos[x]] = true;
+                }
+                int livre = 0;
+                for (int x = 0; x < largura; x++) {
+                    if (this.isAberta(x, SUL))
+                        continue;
+                    while (desceu[livre])
+                        livre++;
+                    conjuntos[x] = livre++;
+                }
+            }
+            receptor.receberLinha(y, linha);
+        }
+    }
+
+    /**
+     * Gera um labirinto de ALTURA linhas gravando as linhas em sequência no CANAL,
+     * getBytesLinha() bytes por linha.
+     * @param altura Número de linhas.
+     * @param canal Canal de destino; não é fechado.
+     * @throws IOException Caso o canal não possa ser gravado.
+     */
+    public void gerar(long altura, final WritableByteChannel canal) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(linha);
+        this.gerar(altura, new ReceptorLinhas() {
+            @Override
+            public void receberLinha(long y, byte[] linha) throws IOException {
+                buffer.clear();
+                while (buffer.hasRemaining())
+                    canal.write(buffer);
+            }
+        });
+    }
+
+    /**
+     * Retorna o número de bytes de cada linha empacotada.
+     * @return (LARGURA + 3) / 4
+     */
+    public final int getBytesLinha() {
+        return (largura + 3) >>> 2;
+    }
+
+    public int getLargura() {
+        return largura;
+    }
+
+    private boolean sortear() {
+        if (quantidadeBits == 0) {
+            bits = aleatorio.proximoLong();
+            quantidadeBits = 64;
+        }
+        quantidadeBits--;
+        boolean sorteado = (bits & 1) != 0;
+        bits >>>= 1;
+        return sorteado;
+    }
+
+    private int raiz(int conjunto) {
+        while (pais[conjunto] != conjunto) {
+            pais[conjunto] = pais[pais[conjunto]];
+            conjunto = pais[conjunto];
+        }
+        return conjunto;
+    }
+
+    private void abrir(int x, int bit) {
+        linha[x >>> 2] |= bit << ((x & 3) << 1);
+    }
+
+    private boolean isAberta(int x, int bit) {
+        return (linha[x >>> 2] >>> ((x & 3) << 1) & bit) != 0;
+    }
+}
@@ -0,0 +1,348 @@
+package model;
+
+import java.io.Closeable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @author  André M. Ribeiro dos Santos
+ * @author  Jorge Aikes Junior
+ *
+ * GeradorParalelo
+ *
+ * Gera labirintos perfeitos usando todos os processadores. O labirinto é
+ * dividido em LADRILHOS quadrados e cada ladrilho é gerado como um labirinto
+ * perfeito independente (técnica recursiva, como gerarLabirintoRecursivo)
+ * num ForkJoinPool. Em seguida os ladrilhos são ligados por uma árvore
+ * geradora aleatória do grafo de ladrilhos, com exatamente uma passagem por
+ * aresta da árvore, então o resultado continua perfeito: um único caminho
+ * entre quaisquer duas células.
+ *
+ * A semente de cada ladrilho e a árvore são sorteadas em sequência a partir da
+ * SEMENTE, e cada parede é aberta uma única vez; assim o labirinto gerado depende
+ * apenas da semente, do tamanho e do tamanho dos ladrilhos, nunca do número de
+ * threads nem da ordem de gravação. O labirinto é processado uma linha de
+ * ladrilhos por vez, então a memória extra é de um byte por célula dessa linha.
+ *
+ * As paredes são gravadas direto no armazenamento, também em paralelo: a linha de
+ * ladrilhos é dividida em faixas de linhas de células, gravadas em duas ondas (as
+ * faixas pares e depois as ímpares) para que duas threads nunca escrevam na mesma
+ * palavra do armazenamento. Os ouvintes do labirinto recebem apenas um
+ * labirintoReiniciado ao final, e a versão do labirinto muda uma única vez.
+ */
+public class GeradorParalelo implements Closeable {
+
+    private static final int LESTE = 1;
+    private static final int SUL = 2;
+    private static final int VISITADA = 4;
+
+    /*
+     * Maior lado de ladrilho: as células de um ladrilho são indexadas com int.
+     * Abaixo de GRAVACAO_PARALELA células de lado as paredes são gravadas pela thread
+     * que chamou gerar; a partir dele uma linha do labirinto ocupa mais de uma palavra
+     * de qualquer armazenamento, então faixas não vizinhas nunca as compartilham.
+     */
+    private static final int LADRILHO_MAXIMO = 1 << 15;
+    private static final int GRAVACAO_PARALELA = 64;
+
+    private final ForkJoinPool pool;
+    private final int paralelismo;
+    private int ladrilho;
+
+    /**
+     * Construtor parametrizado.
+     * @param paralelismo Número de threads usadas na geração dos ladrilhos.
+     */
+    public GeradorParalelo(int paralelismo) {
+        this.paralelismo = paralelismo;
+        this.pool = new ForkJoinPool(paralelismo);
+        this.ladrilho = 256;
+    }
+
+    /**
+     * Construtor padrão, usando uma thread por processador.
+     */
+    public GeradorParalelo() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Reconstrói o LABIRINTO como um labirinto perfeito gerado a partir da SEMENTE.
+     * @param labirinto Labirinto a ser gerado; suas paredes são todas refeitas.
+     * @param semente Semente do gerador pseudoaleatório.
+     */
+    public synchronized void gerar(Labirinto labirinto, long semente) {
+        int tamanho = labirinto.getTamanho();
+        int lado = (int) (((long) tamanho + ladrilho - 1) / ladrilho);
+        if ((long) lado * lado > Integer.MAX_VALUE / 2)
+            throw new IllegalStateException("Ladrilhos demais para o labirinto: " + lado + " x " + lado
+                    + "; aumente o lado dos ladrilhos");
+        ArmazenamentoLabirinto armazenamento = labirinto.getArmazenamento();
+        armazenamento.reiniciar(tamanho, true);
+        Aleatorio aleatorio = new Aleatorio(semente);
+
+        long[] sementes = new long[lado * lado];
+        for (int i = 0; i < sementes.length; i++)
+            sementes[i] = aleatorio.proximoLong();
+        long[] ligacoes = this.sortearArvore(aleatorio, lado, tamanho);
+
+        byte[][] passagens = new byte[lado][];
+        for (int ty = 0; ty < lado; ty++) {
+            this.pool.invoke(new Ladrilhos(sementes, passagens, lado, ty, 0, lado, tamanho));
+            int y0 = ty * ladrilho;
+            int altura = Math.min(ladrilho, tamanho - y0);
+            if (tamanho < GRAVACAO_PARALELA) {
+                this.gravar(armazenamento, passagens, y0, y0, y0 + altura, tamanho);
+                continue;
+            }
+            int faixas = Math.max(2, Math.min(altura, 2 * paralelismo));
+            for (int onda = 0; onda < 2; onda++)
+                this.pool.invoke(new Faixas(armazenamento, passagens, y0, altura, faixas, onda,
+                        0, (faixas - onda + 1) / 2, tamanho));
+        }
+        for (int i = 0; i < ligacoes.length; i += 2)
+            armazenamento.setParede((int) (ligacoes[i] % tamanho), (int) (ligacoes[i] / tamanho),
+                    (int) ligacoes[i + 1], false);
+        labirinto.notificarReinicio();
+    }
+
+    /**
+     * Encerra as threads do gerador.
+     */
+    @Override
+    public void close() {
+        this.pool.shutdown();
+    }
+
+    public int getParalelismo() {
+        return paralelismo;
+    }
+
+    public int getLadrilho() {
+        return ladrilho;
+    }
+
+    /**
+     * Configura o lado, em células, dos ladrilhos. O labirinto gerado depende desse
+     * valor; o padrão é 256.
+     * @param ladrilho Lado de cada ladrilho, de 1 a 32768.
+     */
+    public void setLadrilho(int ladrilho) {
+        if (ladrilho < 1 || ladrilho > LADRILHO_MAXIMO)
+            throw new IllegalArgumentException("Ladrilho deve estar entre 1 e " + LADRILHO_MAXIMO + ": " + ladrilho);
+        this.ladrilho = ladrilho;
+    }
+
+    /*
+     * Árvore geradora aleatória do grafo de ladrilhos (Kruskal com as arestas embaralhadas).
+     * Retorna, para cada aresta da árvore, a célula e o sentido da passagem que liga os
+     * dois ladrilhos, numa posição sorteada da borda comum.
+     */
+    private long[] sortearArvore(Aleatorio aleatorio, int lado, int tamanho) {
+        int quantidade = 2 * lado * (lado - 1);
+        int[] arestas = new int[quantidade];
+        for (int i = 0; i < quantidade; i++)
+            arestas[i] = i;
+        for (int i = quantidade - 1; i > 0; i--) {
+            int j = aleatorio.proximoInt(i + 1);
+            int aresta = arestas[i];
+            arestas[i] = arestas[j];
+            arestas[j] = aresta;
+        }
+
+        int[] pais = new int[lado * lado];
+        for (int i = 0; i < pais.length; i++)
+            pais[i] = i;
+        long[] ligacoes = new long[2 * Math.max(0, pais.length - 1)];
+        int ligadas = 0;
+        for (int i = 0; i < quantidade && ligadas < ligacoes.length; i++) {
+            //Arestas pares ligam o ladrilho ao vizinho leste, ímpares ao vizinho sul
+            int aresta = arestas[i];
+            boolean leste = (aresta & 1) == 0;
+            int origem = aresta >>> 1;
+            int tx = leste ? origem % (lado - 1) : origem % lado;
+            int ty = leste ? origem / (lado - 1) : origem / lado;
+            int a = this.raiz(pais, ty * lado + tx);
+            int b = this.raiz(pais, leste ? ty * lado + tx + 1 : (ty + 1) * lado + tx);
+            if (a == b)
+                continue;
+            pais[b] = a;
+
+            int x;
+            int y;
+            int x0 = tx * ladrilho;
+            int y0 = ty * ladrilho;
+            if (leste) {
+                x = x0 + Math.min(ladrilho, tamanho - x0) - 1;
+                y = y0 + aleatorio.proximoInt(Math.min(ladrilho, tamanho - y0));
+            } else {
+                x = x0 + aleatorio.proximoInt(Math.min(ladrilho, tamanho - x0));
+                y = y0 + Math.min(ladrilho, tamanho - y0) - 1;
+            }
+            ligacoes[ligadas++] = (long) y * tamanho + x;
+            ligacoes[ligadas++] = leste ? Labirinto.L : Labirinto.S;
+        }
+        return ligacoes;
+    }
+
+    private int raiz(int[] pais, int i) {
+        while (pais[i] != i) {
+            pais[i] = pais[pais[i]];
+            i = pais[i];
+        }
+        return i;
+    }
+
+    /*
+     * Grava no armazenamento as passagens internas das linhas DE até ATE da linha de
+     * ladrilhos que começa na linha Y0
+     */
+    private void gravar(ArmazenamentoLabirinto armazenamento, byte[][] passagens, int y0, int de, int ate,
+            int tamanho) {
+        for (int y = de; y < ate; y++) {
+            for (int tx = 0; tx < passagens.length; tx++) {
+                byte[] dados = passagens[tx];
+                int x0 = tx * ladrilho;
+                int largura = Math.min(ladrilho, tamanho - x0);
+                int linha = (y - y0) * largura;
+                for (int x = 0; x < largura; x++) {
+                    int bits = dados[linha + x];
+                    if ((bits & LESTE) != 0)
+                        armazenamento.setParede(x0 + x, y, Labirinto.L, false);
+                    if ((bits & SUL) != 0)
+                        armazenamento.setParede(x0 + x, y, Labirinto.S, false);
+                }
+            }
+        }
+    }
+
+    /*
+     * Gera um labirinto perfeito de LARGURA x ALTURA células por busca em profundidade
+     * aleatória. Cada célula recebe os bits das passagens leste e sul.
+     */
+    private static byte[] gerarLadrilho(int largura, int altura, long semente) {
+        Aleatorio aleatorio = new Aleatorio(semente);
+        byte[] passagens = new byte[largura * altura];
+        int[] pilha = new int[largura * altura];
+        int[] sentidos = new int[4];
+
+        int topo = 0;
+        int inicio = aleatorio.proximoInt(largura * altura);
+        passagens[inicio] = VISITADA;
+        pilha[topo++] = inicio;
+        while (topo > 0) {
+            int celula = pilha[topo - 1];
+            int x = celula % largura;
+            int y = celula / largura;
+            int quantidade = 0;
+            for (int s = 0; s < 4; s++) {
+                int nx = x + Labirinto.DX[s];
+                int ny = y + Labirinto.DY[s];
+                if (nx >= 0 && nx < largura && ny >= 0 && ny < altura
+                        && (passagens[ny * largura + nx] & VISITADA) == 0)
+                    sentidos[quantidade++] = s;
+            }
+            if (quantidade == 0) {
+                topo--;
+                continue;
+            }
+
+            int sentido = sentidos[aleatorio.proximoInt(quantidade)];
+            int vizinha = celula + Labirinto.DX[sentido] + Labirinto.DY[sentido] * largura;
+            //A passagem é guardada na célula mais ao norte/oeste do par
+            switch (sentido) {
+                case Labirinto.N: passagens[vizinha] |= SUL; break;
+                case Labirinto.S: passagens[celula] |= SUL; break;
+                case Labirinto.L: passagens[celula] |= LESTE; break;
+                default: passagens[vizinha] |= LESTE; break;
+            }
+            passagens[vizinha] |= VISITADA;
+            pilha[topo++] = vizinha;
+        }
+        return passagens;
+    }
+
+    /*
+     * Gera em paralelo os ladrilhos DE até ATE da linha de ladrilhos TY, dividindo o
+     * intervalo ao meio até restar um ladrilho por tarefa
+     */
+    private class Ladrilhos extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] sementes;
+        private final byte[][] passagens;
+        private final int lado;
+        private final int ty;
+        private final int de;
+        private final int ate;
+        private final int tamanho;
+
+        Ladrilhos(long[] sementes, byte[][] passagens, int lado, int ty, int de, int ate, int tamanho) {
+            this.sementes = sementes;
+            this.passagens = passagens;
+            this.lado = lado;
+            this.ty = ty;
+            this.de = de;
+            this.ate = ate;
+            this.tamanho = tamanho;
+        }
+
+        @Override
+        protected void compute() {
+            if (ate - de > 1) {
+                int meio = (de + ate) >>> 1;
+                invokeAll(new Ladrilhos(sementes, passagens, lado, ty, de, meio, tamanho),
+                        new Ladrilhos(sementes, passagens, lado, ty, meio, ate, tamanho));
+                return;
+            }
+            int largura = Math.min(ladrilho, tamanho - de * ladrilho);
+            int altura = Math.min(ladrilho, tamanho - ty * ladrilho);
+            passagens[de] = gerarLadrilho(largura, altura, sementes[ty * lado + de]);
+        }
+    }
+
+    /*
+     * Grava em paralelo as faixas 2 * DE + ONDA até 2 * ATE + ONDA das FAIXAS em que as
+     * ALTURA linhas a partir de Y0 são divididas. Faixas de mesma paridade não são
+     * vizinhas: entre elas há ao menos uma linha inteira do labirinto
+     */
+    private class Faixas extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ArmazenamentoLabirinto armazenamento;
+        private final byte[][] passagens;
+        private final int y0;
+        private final int altura;
+        private final int faixas;
+        private final int onda;
+        private final int de;
+        private final int ate;
+        private final int tamanho;
+
+        Faixas(ArmazenamentoLabirinto armazenamento, byte[][] passagens, int y0, int altura, int faixas,
+                int onda, int de, int ate, int tamanho) {
+            this.armazenamento = armazenamento;
+            this.passagens = passagens;
+            this.y0 = y0;
+            this.altura = altura;
+            this.faixas = faixas;
+            this.onda = onda;
+            this.de = de;
+            this.ate = ate;
+            this.tamanho = tamanho;
+        }
+
+        @Override
+        protected void compute() {
+            if (ate - de > 1) {
+                int meio = (de + ate) >>> 1;
+                invokeAll(new Faixas(armazenamento, passagens, y0, altura, faixas, onda, de, meio, tamanho),
+                        new Faixas(armazenamento, passagens, y0, altura, faixas, onda, meio, ate, tamanho));
+                return;
+            }
+            int faixa = 2 * de + onda;
+            gravar(armazenamento, passagens, y0, y0 + altura * faixa / faixas,
+                    y0 + altura * (faixa + 1) / faixas, tamanho);
+        }
+    }
+}
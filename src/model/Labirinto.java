@@ -1,9 +1,9 @@
 package model;
 
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
-import java.util.Stack;
 
 /**
  * @author  André M. Ribeiro dos Santos
@@ -42,22 +42,66 @@ public class Labirinto {
     public final static int[] DX = {0, 0, 1, -1};
     public final static int[] DY = {-1, 1, 0, 0};
     public final static int[] OPOSTO = {S, N, O, L};
+
+    /*
+     * PESO_MAXIMO ~> maior custo de uma célula, já que os pesos são guardados em um byte
+     */
+    public final static int PESO_MAXIMO = 255;
+
+    /*
+     * MAXIMO_VETOR ~> maior vetor que as JVMs costumam alocar
+     */
+    private final static int MAXIMO_VETOR = Integer.MAX_VALUE - 8;
     
         
     /*
      * Váriaveis de instância
      * 
-     * labirinto    ~> matriz de células(NxN)
-     * tamanho      ~> tamanho N da matriz
+     * armazenamento ~> representação das paredes das células(NxN)
+     * tamanho       ~> tamanho N da matriz
+     * ouvintes      ~> interessados nas alterações de paredes
+     * versao        ~> contador incrementado a cada alteração do labirinto
+     * versaoParedes ~> contador incrementado apenas quando as paredes mudam
+     * pesos         ~> custo de entrar em cada célula, por linha Y e coluna X, de 1 a 255,
+     *                  guardado sem sinal; NULO enquanto todas custam 1 e cada linha NULA
+     *                  enquanto todas as suas células custam 1
      */
-    private Celula[][] labirinto;
+    private ArmazenamentoLabirinto armazenamento;
     private int tamanho;
+    private byte[][] pesos;
+    /*
+     * pilhaMovimentos              ~> pilha de movimentos {Y, X, SENTIDO} da geração
+     *                                recursiva, reaproveitada entre gerações
+     * cacaveis                     ~> bit por célula fechada com alguma adjacente aberta (Hunt and Kill)
+     * inicioCaca                   ~> nenhuma célula antes desta é caçável
+     * fronteiraPrim, naFronteira    ~> células da fronteira de Prim, em lista e em mapa de bits
+     */
+    private long[] pilhaMovimentos;
+    private long[] cacaveis;
+    private long inicioCaca;
+    private long[] fronteiraPrim;
+    private long[] naFronteira;
+    private long versao;
+    private long versaoParedes;
+    private final List<OuvinteLabirinto> ouvintes = new ArrayList<OuvinteLabirinto>();
 
     /**
-     * Construtor padrão
+     * Construtor padrão, armazenando o labirinto como matriz de células.
      * @param tamanho Tamanho na matriz quadrada representando o labirinto.
      */
     public Labirinto(int tamanho) {
+        this(tamanho, new ArmazenamentoCelulas());
+    }
+
+    /**
+     * Construtor parametrizado.
+     * @param tamanho Tamanho na matriz quadrada representando o labirinto.
+     * @param armazenamento Layout de memória usado para guardar as paredes.
+     * @see ArmazenamentoCompacto
+     * @see ArmazenamentoMapeado
+     */
+    public Labirinto(int tamanho, ArmazenamentoLabirinto armazenamento) {
+        this.armazenamento = armazenamento;
         this.setTamanho(tamanho);
     }
 
@@ -82,6 +126,7 @@ public class Labirinto {
      */
     public final void setTamanho(int tamanho) {
         this.tamanho = tamanho;
+        this.pesos = null;
         this.reiniciarLabirinto();
     }
     
@@ -93,7 +138,100 @@ public class Labirinto {
      * @return Retorna a célula na linha Y, coluna X da matriz labirinto
      */
     public final Celula getCelula(int x, int y) {
-        return labirinto[y][x];
+        return armazenamento.getCelula(x, y);
+    }
+
+    /**
+     * Retorna a versão do labirinto, incrementada por reiniciarLabirinto, por
+     * toda parede alterada por abrirCaminho, fecharCaminho e alterarCaminho e por
+     * todo peso alterado por setPeso e limparPesos.
+     * Resultados calculados sobre uma versão deixam de valer quando ela muda.
+     * Alterações feitas diretamente no armazenamento não mudam a versão.
+     * @return Versão atual do labirinto.
+     */
+    public final long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Retorna a versão das paredes do labirinto, incrementada como getVersao exceto pelos
+     * pesos. Serve os resultados que dependem só das paredes, como as distâncias em passos.
+     * @return Versão atual das paredes.
+     */
+    public final long getVersaoParedes() {
+        return versaoParedes;
+    }
+
+    /*
+     * Pesos das Células
+     * Terrenos como lama ou portas custam mais para atravessar: o custo de um movimento é
+     * o peso da célula de destino. Os pesos independem das paredes e são mantidos quando o
+     * labirinto é gerado novamente; mudar o tamanho volta todos os pesos para 1.
+     * As buscas que contam apenas passos (amplitude paralela, IDA*, junções, LPA*) os ignoram.
+     */
+    /**
+     * Retorna o custo de entrar na célula X, Y.
+     * @param x Posição X da célula no labirinto
+     * @param y Posição y da célula no labirinto
+     * @return Peso da célula, entre 1 e PESO_MAXIMO.
+     */
+    public final int getPeso(int x, int y) {
+        if (pesos == null)
+            return 1;
+        byte[] linha = pesos[y];
+        return linha == null ? 1 : linha[x] & 0xFF;
+    }
+
+    /**
+     * Configura o custo de entrar na célula X, Y, mudando a versão do labirinto.
+     * @param x Posição X da célula no labirinto
+     * @param y Posição y da célula no labirinto
+     * @param peso Peso entre 1 e PESO_MAXIMO.
+     */
+    public void setPeso(int x, int y, int peso) {
+        if (peso < 1 || peso > PESO_MAXIMO)
+            throw new IllegalArgumentException("Peso fora do intervalo [1, " + PESO_MAXIMO + "]: " + peso);
+        byte[] linha = pesos == null ? null : pesos[y];
+        if (linha == null) {
+            if (peso == 1)
+                return;
+            //Linhas alocadas sob demanda: N linhas de N bytes, sem índice Y * TAMANHO + X
+            if (pesos == null)
+                pesos = new byte[tamanho][];
+            linha = new byte[tamanho];
+            Arrays.fill(linha, (byte) 1);
+            pesos[y] = linha;
+        }
+        if ((linha[x] & 0xFF) != peso) {
+            linha[x] = (byte) peso;
+            versao++;
+        }
+    }
+
+    /**
+     * Volta o peso de todas as células para 1.
+     */
+    public void limparPesos() {
+        if (pesos != null) {
+            pesos = null;
+            versao++;
+        }
+    }
+
+    /**
+     * Verifica se alguma célula já recebeu peso diferente de 1.
+     * @return True se os custos dos movimentos podem ser diferentes de 1.
+     */
+    public final boolean isPonderado() {
+        return pesos != null;
+    }
+
+    /**
+     * Retorna o armazenamento usado para guardar as paredes do labirinto.
+     * @return Armazenamento das paredes.
+     */
+    public final ArmazenamentoLabirinto getArmazenamento() {
+        return armazenamento;
     }
     
     
@@ -109,8 +247,8 @@ public class Labirinto {
         for (int y = 0; y < this.getTamanho(); y++) {
             builder.append("|");
             for (int x = 0; x < this.getTamanho(); x++) {
-                builder.append(this.getCelula(x, y).isParedeSul()? "_" : " ");
-                builder.append(this.getCelula(x, y).isParedeLeste()? "|" : " ");
+                builder.append(armazenamento.isParede(x, y, S)? "_" : " ");
+                builder.append(armazenamento.isParede(x, y, L)? "|" : " ");
             }
             builder.append("\n");
         }
@@ -124,27 +262,27 @@ public class Labirinto {
      * @see Celula(boolean).
      */
     public void reiniciarLabirinto(boolean fechado) {
-        labirinto = new Celula[this.getTamanho()][this.getTamanho()];
-        for(int y = 0; y < this.getTamanho(); y++)
-            for(int x = 0; x < this.getTamanho(); x++)
-                this.labirinto[y][x] = new Celula(fechado);
+        armazenamento.reiniciar(this.getTamanho(), fechado);
+        this.notificarReinicio();
     }
-    
+
     /**
-     * Reconstrói o labirinto com células fechadas.
+     * Registra que o armazenamento foi refeito por inteiro: uma nova versão e um único
+     * labirintoReiniciado. Usado por geradores que gravam as paredes direto no
+     * armazenamento, como o GeradorParalelo, em vez de notificar cada parede.
      */
-    public void reiniciarLabirinto(){
-        this.reiniciarLabirinto(true);
+    void notificarReinicio() {
+        versao++;
+        versaoParedes++;
+        for (int i = 0; i < ouvintes.size(); i++)
+            ouvintes.get(i).labirintoReiniciado(this);
     }
     
     /**
-     * Este método visita todas as células da matriz e diz que a celula X,Y
-     * não foi visitada.
+     * Reconstrói o labirinto com células fechadas.
      */
-    public void limparVisitas() {
-        for (int y = 0; y < labirinto.length; y++)
-            for (int x = 0; x < labirinto[y].length; x++)
-                this.getCelula(x, y).setVisitada(false);
+    public void reiniciarLabirinto(){
+        this.reiniciarLabirinto(true);
     }
     
     /*
@@ -172,7 +310,7 @@ public class Labirinto {
      * @return True se a célula está com todas as paredes contruídas.
      */
     public boolean celulaFechada(int x, int y) {
-        return this.getCelula(x, y).isFechada();
+        return armazenamento.isFechada(x, y);
     }
     
     /**
@@ -196,24 +334,7 @@ public class Labirinto {
      * @return True se a movimentação é possível.
      */
     public boolean movimentoValido(int x, int y, int sentido) {
-    	boolean possivel = false;
-    	
-    	switch(sentido) {
-    	case N:
-    		possivel = !this.getCelula(x, y).isParedeNorte();
-    		break;
-    	case S:
-    		possivel = !this.getCelula(x, y).isParedeSul();
-    		break;
-    	case L:
-    		possivel = !this.getCelula(x, y).isParedeLeste();
-    		break;
-    	case O:
-    		possivel = !this.getCelula(x, y).isParedeOeste();
-    		break;
-    	}
-    	
-    	return possivel;
+    	return !armazenamento.isParede(x, y, sentido);
     }
     
     /*
@@ -234,9 +355,9 @@ public class Labirinto {
         int nx = x + DX[sentido];
         int ny = y + DY[sentido];
         
-        if(celulaValida(nx, ny)) {
-            this.getCelula(x, y).destruirParede(sentido);
-            this.getCelula(nx, ny).destruirParede(OPOSTO[sentido]);
+        if(celulaValida(nx, ny) && armazenamento.isParede(x, y, sentido)) {
+            armazenamento.setParede(x, y, sentido, false);
+            this.notificarParede(x, y, sentido, false);
         }
     }
     /**
@@ -251,9 +372,9 @@ public class Labirinto {
         int nx = x + DX[sentido];
         int ny = y + DY[sentido];
         
-        if(celulaValida(nx, ny)) {
-            this.getCelula(x, y).construirParede(sentido);
-            this.getCelula(nx, ny).construirParede(OPOSTO[sentido]);
+        if(celulaValida(nx, ny) && !armazenamento.isParede(x, y, sentido)) {
+            armazenamento.setParede(x, y, sentido, true);
+            this.notificarParede(x, y, sentido, true);
         }
     }
     
@@ -270,10 +391,39 @@ public class Labirinto {
         int ny = y + DY[sentido];
         
         if(celulaValida(nx, ny)) {
-            this.getCelula(x, y).alterarParede(sentido);
-            this.getCelula(nx, ny).alterarParede(OPOSTO[sentido]);
+            boolean existe = !armazenamento.isParede(x, y, sentido);
+            armazenamento.setParede(x, y, sentido, existe);
+            this.notificarParede(x, y, sentido, existe);
         }
     }
+
+    /*
+     * Ouvintes
+     * Interessados nas alterações de paredes feitas por abrirCaminho, fecharCaminho,
+     * alterarCaminho e pela geração do labirinto.
+     */
+    /**
+     * Registra um ouvinte das alterações do labirinto.
+     * @param ouvinte Ouvinte a ser notificado.
+     */
+    public void adicionarOuvinte(OuvinteLabirinto ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    /**
+     * Remove um ouvinte registrado por adicionarOuvinte.
+     * @param ouvinte Ouvinte a ser removido.
+     */
+    public void removerOuvinte(OuvinteLabirinto ouvinte) {
+        ouvintes.remove(ouvinte);
+    }
+
+    private void notificarParede(int x, int y, int sentido, boolean existe) {
+        versao++;
+        versaoParedes++;
+        for (int i = 0; i < ouvintes.size(); i++)
+            ouvintes.get(i).paredeAlterada(this, x, y, sentido, existe);
+    }
     
     /*
      * Algoritmos de Geração de Labirinto (gerarLabirinto*)
@@ -309,49 +459,84 @@ public class Labirinto {
      * 8 - Repita 5 a 8 enquanto restar movimentos
      * 9 - Repita 2 a 9 enquanto a FRONTEIRA não estiver vazia
      * 
+     * A semente é sorteada a cada chamada; para labirintos reproduzíveis use
+     * gerarLabirintoRecursivo(long).
      */
     public void gerarLabirintoRecursivo() {
+        this.gerarLabirintoRecursivo(new Random().nextLong());
+    }
+
+    /**
+     * Gera o labirinto pela técnica recursiva de forma determinística: a mesma
+     * SEMENTE e o mesmo tamanho sempre geram o mesmo labirinto.
+     * @param semente Semente do gerador pseudoaleatório.
+     * @see #gerarLabirintoRecursivo(Aleatorio)
+     */
+    public void gerarLabirintoRecursivo(long semente) {
+        this.gerarLabirintoRecursivo(new Aleatorio(semente));
+    }
+
+    /**
+     * Gera o labirinto pela técnica recursiva sorteando os sentidos com o gerador
+     * informado. Os movimentos ficam numa pilha de long reaproveitada entre gerações,
+     * cada um com Y, X e SENTIDO nos bits 33 a 63, 2 a 32 e 0 a 1, então nenhum índice
+     * Y * TAMANHO + X é calculado e labirintos com mais de 2^31 células não estouram.
+     * Os sentidos são embaralhados no próprio vetor (Fisher-Yates), sem objetos por
+     * célula. Uma célula já foi aberta se tem alguma passagem (celulaFechada), consulta
+     * feita no próprio armazenamento: a geração não guarda nada por célula além das
+     * paredes e funciona com o ArmazenamentoMapeado em labirintos maiores que o heap.
+     * @param aleatorio Gerador usado nos sorteios.
+     * @throws IllegalStateException Se a pilha precisar de mais que o maior vetor da JVM.
+     */
+    public void gerarLabirintoRecursivo(Aleatorio aleatorio) {
         this.reiniciarLabirinto();
-        /*
-         * Os movimentos aqui são representados 
-         * por um vetor de 3 inteiros:
-         * {X, Y, SENTIDO}
-         */
-        Stack<int[]> fronteira = new Stack<int[]>();
-        
-        LinkedList<Integer> movimentos = new LinkedList<Integer>();
-        movimentos.add(N);
-        movimentos.add(S);
-        movimentos.add(L);
-        movimentos.add(O);
-        
-        int[] atual = {0, 0, S};
-        int nx, ny;
-
-        fronteira.add(atual);
-
-        while (!fronteira.isEmpty()) {
-            atual = fronteira.pop();
-            
-            if (this.celulaFechada(atual[0], atual[1])) {
-                this.abrirCaminho(atual[0], atual[1], atual[2]);
-                //Print de labirinto para observar os passos de geração
-                //System.out.println(this.toString());
+        if (pilhaMovimentos == null)
+            pilhaMovimentos = new long[64];
+        int[] sentidos = {N, S, L, O};
+
+        int topo = 0;
+        pilhaMovimentos[topo++] = movimento(0, 0, S);
+
+        while (topo > 0) {
+            long movimento = pilhaMovimentos[--topo];
+            int x = (int) (movimento >>> 2) & Integer.MAX_VALUE;
+            int y = (int) (movimento >>> 33);
+            int s = (int) movimento & 3;
+
+            if (this.celulaFechada(x, y) && this.celulaValida(x + DX[s], y + DY[s]))
+                this.abrirCaminho(x, y, s);
+
+            for (int i = 3; i > 0; i--) {
+                int j = aleatorio.proximoInt(i + 1);
+                int sentido = sentidos[i];
+                sentidos[i] = sentidos[j];
+                sentidos[j] = sentido;
             }
-            
-            Collections.shuffle(movimentos);
-            for (int i = 0; i < movimentos.size(); i++) {
-                nx = atual[0] + DX[movimentos.get(i)];
-                ny = atual[1] + DY[movimentos.get(i)];
+            if (topo + 4 > pilhaMovimentos.length)
+                pilhaMovimentos = crescer(pilhaMovimentos, "pilha da geração recursiva");
+            for (int i = 0; i < 4; i++) {
+                int nx = x + DX[sentidos[i]];
+                int ny = y + DY[sentidos[i]];
 
-                if (this.celulaValida(nx, ny) && this.celulaFechada(nx, ny)) {
-                    int proximo[] = {nx, ny, OPOSTO[movimentos.get(i)]};
-                    fronteira.add(proximo);
-                }
+                if (this.celulaValida(nx, ny) && this.celulaFechada(nx, ny))
+                    pilhaMovimentos[topo++] = movimento(nx, ny, OPOSTO[sentidos[i]]);
             }
         }
     }
 
+    private static long movimento(int x, int y, int sentido) {
+        return (long) y << 33 | (long) x << 2 | sentido;
+    }
+
+    /*
+     * Dobra um vetor da geração até o maior vetor que a JVM aloca
+     */
+    private static long[] crescer(long[] vetor, String nome) {
+        if (vetor.length >= MAXIMO_VETOR)
+            throw new IllegalStateException("A " + nome + " passou de " + MAXIMO_VETOR + " células");
+        return Arrays.copyOf(vetor, (int) Math.min(2L * vetor.length, MAXIMO_VETOR));
+    }
+
     /**
      * Este método usa a estratégia de Hunt and Kill para geração automâtica
      * do labirinto. Segundo esta estratégia e partindo de uma posição X, Y
@@ -382,75 +567,233 @@ public class Labirinto {
      */
     
     public void gerarLabirintoHuntandKill() {
+        this.gerarLabirintoHuntandKill(new Random().nextLong());
+    }
+
+    /**
+     * Gera o labirinto por Hunt and Kill de forma determinística: a mesma
+     * SEMENTE e o mesmo tamanho sempre geram o mesmo labirinto.
+     * @param semente Semente do gerador pseudoaleatório.
+     * @see #gerarLabirintoHuntandKill(Aleatorio)
+     */
+    public void gerarLabirintoHuntandKill(long semente) {
+        this.gerarLabirintoHuntandKill(new Aleatorio(semente));
+    }
+
+    /**
+     * Gera o labirinto por Hunt and Kill sorteando com o gerador informado.
+     *
+     * A caçada escolhe, em ordem de linhas, a primeira célula fechada com alguma
+     * adjacente aberta. Em vez de varrer o labirinto da linha 0 a cada caçada, as
+     * células caçáveis são mantidas num mapa de bits atualizado a cada célula aberta,
+     * junto com um ponteiro (INICIOCACA) antes do qual não há células caçáveis. A
+     * caçada procura o primeiro bit a partir do ponteiro, 64 células por vez, e escolhe
+     * a mesma célula da caçada completa; o trabalho total fica quase linear no número
+     * de células. O mapa e o ponteiro usam índices long, válidos acima de 2^31 células;
+     * as células abertas são lidas do armazenamento (celulaFechada), sem outro mapa.
+     * @param aleatorio Gerador usado nos sorteios.
+     */
+    public void gerarLabirintoHuntandKill(Aleatorio aleatorio) {
         this.reiniciarLabirinto();
+        int tamanho = this.getTamanho();
+        long celulas = (long) tamanho * tamanho;
+        int palavras = (int) ((celulas + 63) >>> 6);
+        if (cacaveis == null || cacaveis.length < palavras)
+            cacaveis = new long[palavras];
+        else
+            Arrays.fill(cacaveis, 0, palavras, 0L);
+        inicioCaca = celulas;
+        int[] sentidos = {N, S, L, O};
+        int[] vizinhos = new int[4];
 
-        int[] atual = this.getCelulaAleatoria();
+        int x = aleatorio.proximoInt(tamanho);
+        int y = aleatorio.proximoInt(tamanho);
+        while (true) {
+            //Caminhar: abre a passagem para uma adjacente fechada sorteada
+            for (int i = 3; i > 0; i--) {
+                int j = aleatorio.proximoInt(i + 1);
+                int sentido = sentidos[i];
+                sentidos[i] = sentidos[j];
+                sentidos[j] = sentido;
+            }
+            int passo = -1;
+            for (int i = 0; i < 4 && passo < 0; i++) {
+                int nx = x + DX[sentidos[i]];
+                int ny = y + DY[sentidos[i]];
+                if (this.celulaValida(nx, ny) && this.celulaFechada(nx, ny)) {
+                    this.abrirCacando(x, y, sentidos[i]);
+                    passo = sentidos[i];
+                }
+            }
+            if (passo >= 0) {
+                x += DX[passo];
+                y += DY[passo];
+                continue;
+            }
 
-        while (atual != null) {
-            atual = this.walk(atual[0], atual[1]);
-            if (atual == null)
-                atual = this.hunt();
-            //Printa o labirinto atual para observar os passos de desenvolvimento
-            //System.out.println(this.toString());
+            //Caçar: primeira célula caçável a partir do ponteiro
+            long cacada = this.proximaCacavel(palavras);
+            if (cacada < 0)
+                return;
+            x = (int) (cacada % tamanho);
+            y = (int) (cacada / tamanho);
+            int quantidade = 0;
+            for (int i = 0; i < 4; i++) {
+                if (this.celulaValida(x + DX[i], y + DY[i]) && !this.celulaFechada(x + DX[i], y + DY[i]))
+                    vizinhos[quantidade++] = i;
+            }
+            this.abrirCacando(x, y, vizinhos[aleatorio.proximoInt(quantidade)]);
         }
     }
 
-    /**
-     * Método para o algoritmo "caminhar" pelo labirinto.
-     * @param x Posição X da célula no labirinto
-     * @param y Posição y da célula no labirinto
-     * @return Movimentação
-     */
-    private int[] walk(int x, int y) {
-        int nx, ny;
-
-        LinkedList<Integer> movimentos = new LinkedList<Integer>();
-        movimentos.add(N);
-        movimentos.add(S);
-        movimentos.add(L);
-        movimentos.add(O);
-
-        Collections.shuffle(movimentos);
-        for (int i = 0; i < movimentos.size(); i++) {
-            nx = x + DX[movimentos.get(i)];
-            ny = y + DY[movimentos.get(i)];
-
-            if (this.celulaValida(nx, ny) && this.celulaFechada(nx, ny)) {
-                this.abrirCaminho(x, y, movimentos.get(i));
-                int[] to = {nx, ny};
-                return to;
+    /*
+     * Retorna a primeira célula caçável a partir de INICIOCACA, ou -1 se não há nenhuma
+     */
+    private long proximaCacavel(int palavras) {
+        int palavra = (int) (inicioCaca >>> 6);
+        if (palavra >= palavras)
+            return -1;
+        long bits = cacaveis[palavra] & (-1L << inicioCaca);
+        while (bits == 0) {
+            if (++palavra == palavras)
+                return -1;
+            bits = cacaveis[palavra];
+        }
+        inicioCaca = ((long) palavra << 6) + Long.numberOfTrailingZeros(bits);
+        return inicioCaca;
+    }
+
+    /*
+     * Abre a passagem da célula X, Y no sentido indicado e atualiza as células caçáveis
+     * com as células que estavam fechadas antes dela
+     */
+    private void abrirCacando(int x, int y, int sentido) {
+        int nx = x + DX[sentido];
+        int ny = y + DY[sentido];
+        boolean origemFechada = this.celulaFechada(x, y);
+        boolean vizinhaFechada = this.celulaFechada(nx, ny);
+        this.abrirCaminho(x, y, sentido);
+        if (origemFechada)
+            this.marcarAberta(x, y);
+        if (vizinhaFechada)
+            this.marcarAberta(nx, ny);
+    }
+
+    /*
+     * Retira a célula X, Y, recém aberta, das caçáveis e inclui nelas suas adjacentes
+     * ainda fechadas
+     */
+    private void marcarAberta(int x, int y) {
+        long celula = (long) y * this.getTamanho() + x;
+        cacaveis[(int) (celula >>> 6)] &= ~(1L << celula);
+        for (int i = 0; i < 4; i++) {
+            int vx = x + DX[i];
+            int vy = y + DY[i];
+            if (this.celulaValida(vx, vy) && this.celulaFechada(vx, vy)) {
+                long vizinha = (long) vy * this.getTamanho() + vx;
+                cacaveis[(int) (vizinha >>> 6)] |= 1L << vizinha;
+                if (vizinha < inicioCaca)
+                    inicioCaca = vizinha;
             }
         }
-        return null;
     }
-    
+
     /**
-     * Método para o algoritmo "caçar" pelo labirinto.
-     * @return Movimentação
+     * Este método usa o algoritmo de Prim aleatório para geração automática do
+     * labirinto. Partindo de uma célula aleatória, o labirinto cresce a partir de
+     * uma FRONTEIRA de células fechadas adjacentes às já abertas:
+     * 1 - ATUAL = uma CELULA X, Y aleatória; adiciona as adjacentes de ATUAL a FRONTEIRA
+     * 2 - ATUAL = retira uma célula aleatória da FRONTEIRA
+     * 3 - Abre uma passagem entre ATUAL e uma adjacente aberta sorteada
+     * 4 - Adiciona a FRONTEIRA as adjacentes de ATUAL fechadas e fora dela
+     * 5 - Repete 2 a 5 enquanto a FRONTEIRA não estiver vazia
+     *
+     * Os labirintos têm muitas ramificações e corredores curtos.
+     * A semente é sorteada a cada chamada; para labirintos reproduzíveis use
+     * gerarLabirintoPrim(long).
      */
+    public void gerarLabirintoPrim() {
+        this.gerarLabirintoPrim(new Random().nextLong());
+    }
 
-    private int[] hunt() {
-        for (int y = 0; y < this.getTamanho(); y++) {
-            for (int x = 0; x < this.getTamanho(); x++) {
-                
-                if (this.celulaFechada(x, y)) {
-                    LinkedList<Integer> vizinhos = new LinkedList<Integer>();
-                    //Verifica cada movimento N, S, L, O ~> 0,1,2,3
-                    for (int i = 0; i < 4; i++) {
-                        if (this.celulaValida(x + DX[i], y + DY[i]) && !this.celulaFechada(x + DX[i], y + DY[i])) {
-                            vizinhos.add(i);
-                        }
-                    }
-                    if (!vizinhos.isEmpty()) {
-                        Random random = new Random();
-                        this.abrirCaminho(x, y, vizinhos.get(random.nextInt(vizinhos.size())));
-                        int[] to = {x, y};
-                        return to;
-                    }
-                }
+    /**
+     * Gera o labirinto pelo algoritmo de Prim de forma determinística: a mesma
+     * SEMENTE e o mesmo tamanho sempre geram o mesmo labirinto.
+     * @param semente Semente do gerador pseudoaleatório.
+     * @see #gerarLabirintoPrim(Aleatorio)
+     */
+    public void gerarLabirintoPrim(long semente) {
+        this.gerarLabirintoPrim(new Aleatorio(semente));
+    }
+
+    /**
+     * Gera o labirinto pelo algoritmo de Prim sorteando com o gerador informado.
+     * A FRONTEIRA é um vetor de long, cada célula com Y e X nos 32 bits altos e baixos:
+     * inserir, sortear e retirar custam O(1), já que a célula sorteada é trocada pela
+     * última do vetor antes de ser retirada. Um mapa de bits, de índice long, indica
+     * quais células estão na fronteira, e as células abertas são lidas do armazenamento
+     * (celulaFechada), então cada célula gasta um bit além das paredes e nenhum índice
+     * estoura acima de 2^31 células.
+     * @param aleatorio Gerador usado nos sorteios.
+     * @throws IllegalStateException Se a fronteira precisar de mais que o maior vetor da JVM.
+     */
+    public void gerarLabirintoPrim(Aleatorio aleatorio) {
+        this.reiniciarLabirinto();
+        int tamanho = this.getTamanho();
+        int palavras = (int) (((long) tamanho * tamanho + 63) >>> 6);
+        if (naFronteira == null || naFronteira.length < palavras)
+            naFronteira = new long[palavras];
+        else
+            Arrays.fill(naFronteira, 0, palavras, 0L);
+        if (fronteiraPrim == null)
+            fronteiraPrim = new long[64];
+        int[] vizinhos = new int[4];
+
+        int xInicio = aleatorio.proximoInt(tamanho);
+        int yInicio = aleatorio.proximoInt(tamanho);
+        int quantidade = this.expandirPrim(xInicio, yInicio, 0);
+
+        while (quantidade > 0) {
+            int i = aleatorio.proximoInt(quantidade);
+            long celula = fronteiraPrim[i];
+            fronteiraPrim[i] = fronteiraPrim[--quantidade];
+            int x = (int) celula;
+            int y = (int) (celula >>> 32);
+            long indice = (long) y * tamanho + x;
+            naFronteira[(int) (indice >>> 6)] &= ~(1L << indice);
+
+            //A célula inicial já está aberta, mas só ganha passagem pela primeira célula da fronteira
+            int abertasAdjacentes = 0;
+            for (int s = 0; s < 4; s++) {
+                int vx = x + DX[s];
+                int vy = y + DY[s];
+                if (this.celulaValida(vx, vy) && (!this.celulaFechada(vx, vy) || (vx == xInicio && vy == yInicio)))
+                    vizinhos[abertasAdjacentes++] = s;
+            }
+            this.abrirCaminho(x, y, vizinhos[aleatorio.proximoInt(abertasAdjacentes)]);
+            quantidade = this.expandirPrim(x, y, quantidade);
+        }
+    }
+
+    /*
+     * Adiciona a fronteira de Prim as adjacentes da célula X, Y fechadas e fora dela,
+     * crescendo o vetor se preciso. Retorna o novo tamanho da fronteira.
+     */
+    private int expandirPrim(int x, int y, int quantidade) {
+        if (quantidade + 4 > fronteiraPrim.length)
+            fronteiraPrim = crescer(fronteiraPrim, "fronteira de Prim");
+        for (int s = 0; s < 4; s++) {
+            int vx = x + DX[s];
+            int vy = y + DY[s];
+            if (!this.celulaValida(vx, vy) || !this.celulaFechada(vx, vy))
+                continue;
+            long vizinha = (long) vy * this.getTamanho() + vx;
+            if ((naFronteira[(int) (vizinha >>> 6)] & (1L << vizinha)) == 0) {
+                naFronteira[(int) (vizinha >>> 6)] |= 1L << vizinha;
+                fronteiraPrim[quantidade++] = (long) vy << 32 | vx;
             }
         }
-        return null;
+        return quantidade;
     }
 
 }
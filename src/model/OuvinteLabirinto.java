@@ -0,0 +1,34 @@
+package model;
+
+/**
+ * @author  André M. Ribeiro dos Santos
+ * @author  Jorge Aikes Junior
+ *
+ * OuvinteLabirinto
+ *
+ * Interface para acompanhar as alterações de um Labirinto, por exemplo para
+ * corrigir uma busca já calculada em vez de refazê-la do zero. As notificações
+ * são feitas pela thread que alterou o labirinto.
+ */
+public interface OuvinteLabirinto {
+
+    /**
+     * Chamado quando a parede entre a célula X, Y e sua adjacente no sentido
+     * indicado é construída ou destruída.
+     * @param labirinto Labirinto alterado.
+     * @param x Posição X da célula no labirinto
+     * @param y Posição y da célula no labirinto
+     * @param sentido Orientação da parede N, S, L, O
+     * @param existe True se a parede foi construída, False se foi destruída.
+     */
+    void paredeAlterada(Labirinto labirinto, int x, int y, int sentido, boolean existe);
+
+    /**
+     * Chamado quando o labirinto é reconstruído por inteiro (reiniciarLabirinto,
+     * setTamanho e geração). As paredes alteradas em seguida pela geração também
+     * são notificadas, exceto no GeradorParalelo, que grava as paredes direto no
+     * armazenamento e chama este método uma única vez, ao final.
+     * @param labirinto Labirinto reconstruído.
+     */
+    void labirintoReiniciado(Labirinto labirinto);
+}
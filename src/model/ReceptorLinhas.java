@@ -0,0 +1,26 @@
+package model;
+
+import java.io.IOException;
+
+/**
+ * @author  André M. Ribeiro dos Santos
+ * @author  Jorge Aikes Junior
+ *
+ * ReceptorLinhas
+ *
+ * Destino das linhas de um labirinto gerado linha a linha (GeradorEller). Cada
+ * linha chega empacotada como no ArmazenamentoCompacto: 2 bits de passagem por
+ * célula (bit 0 leste, bit 1 sul), 4 células por byte, a primeira célula nos
+ * bits menos significativos.
+ */
+public interface ReceptorLinhas {
+
+    /**
+     * Recebe a linha Y do labirinto.
+     * @param y Índice da linha, a partir de 0.
+     * @param linha Passagens empacotadas da linha. O vetor é reaproveitado pelo
+     * gerador e só é válido durante a chamada.
+     * @throws IOException Caso a linha não possa ser gravada.
+     */
+    void receberLinha(long y, byte[] linha) throws IOException;
+}
@@ -129,9 +129,30 @@ public class Solucao {
 	 */
 	
 	public Solucao moverPara(int acao) {
+		return this.moverPara(acao, 1);
+	}
+
+	/**
+	 * Retorna uma nova solução filha da atual ação, em um labirinto com pesos.
+	 * @param acao Ação a ser executada (sentido).
+	 * @param peso Custo do movimento, ou seja, o peso da célula de destino.
+	 * @return Solução filha, com o custo da atual mais PESO.
+	 */
+	public Solucao moverPara(int acao, int peso) {
 		return new Solucao(
 				this.getX() + Labirinto.DX[acao], 
 				this.getY() + Labirinto.DY[acao], 
-				this.getCusto() + 1, acao, this);
+				this.getCusto() + peso, acao, this);
+	}
+
+	/**
+	 * Retorna uma nova solução filha da atual ação, com o custo dado pelo peso da
+	 * célula de destino no LABIRINTO.
+	 * @param acao Ação a ser executada (sentido).
+	 * @param labirinto Labirinto que define o peso das células.
+	 * @return Solução filha.
+	 */
+	public Solucao moverPara(int acao, Labirinto labirinto) {
+		return this.moverPara(acao, labirinto.getPeso(this.getX() + Labirinto.DX[acao], this.getY() + Labirinto.DY[acao]));
 	}
 }
@@ -5,17 +5,16 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Toolkit;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 import java.util.Arrays;
 
 import javax.swing.JComponent;
-import javax.swing.Timer;
 
 import controller.AgenteBusca;
+import controller.AgenteBuscaAbstrato;
+import controller.AmostradorBusca;
 
 
 import model.Labirinto;
@@ -30,25 +29,6 @@ public class LabirintoGrid extends JComponent implements MouseListener, MouseMot
 	
 	private static final long serialVersionUID = -1603879672390660151L;
 	
-	private class Atualizador extends Timer {
-		/**
-		 * Classe de Atualizador
-		 * Um Timer que enquanto a cada DELAY milisegundos atualiza a tela
-		 * dando o aspecto de animação ao desenho 
-		 */
-		private static final long serialVersionUID = 1L;
-
-		public Atualizador(int delay, final LabirintoGrid grid) {
-			super(delay, new ActionListener() {
-				
-				@Override
-				public void actionPerformed(ActionEvent e) {
-					grid.repaint();
-				}
-			});
-		}
-	}
-	
 	/*
 	 * Variáveis de ambiente e acao
 	 * 
@@ -83,11 +63,11 @@ public class LabirintoGrid extends JComponent implements MouseListener, MouseMot
 	private boolean mouseBordaSul = false;
 	private boolean mouseBordaLeste = false;
 	
-	//Atualizador de Tela
-	Timer atualizador;
+	//Intervalo em milisegundos entre dois desenhos da busca
+	private static final int QUADRO = 25;
 	
 	public LabirintoGrid(AgenteBusca agente){
-		this.agente = agente;
+		this.setAgente(agente);
 		
 		this.larguraBorda = 5;
 		
@@ -103,16 +83,13 @@ public class LabirintoGrid extends JComponent implements MouseListener, MouseMot
 		this.addMouseListener(this);
 		this.addMouseMotionListener(this);
 		
-		//Define o Atualizador de Tela
-		this.atualizador = new Atualizador(25, this);
-		this.atualizador.start();
-		
 		this.atualizarDimensoes();
 		
 	}
 	
 	public LabirintoGrid(){
 		this(new AgenteBusca(new Labirinto(15)));
+		this.agente.setSleepTime(200);
 	}
 	
 	/*
@@ -193,7 +170,7 @@ public class LabirintoGrid extends JComponent implements MouseListener, MouseMot
 				}
 				
 				//Pintar Visitadas
-				if(this.getLabirinto().getCelula(i , j).isVisitada()){
+				if(this.getAgente().isVisitada(i , j)){
 					graphic.setColor(this.fundoVisitada);
 					graphic.fillRoundRect(x, y, this.larguraCelula, this.larguraCelula, 5, 5);
 					graphic.setColor(this.fundoCelula);
@@ -285,8 +262,21 @@ public class LabirintoGrid extends JComponent implements MouseListener, MouseMot
 		return agente;
 	}
 
+	/**
+	 * Define o agente desenhado. O componente passa a ouvir a busca do agente, sendo
+	 * redesenhado no máximo uma vez a cada QUADRO milisegundos enquanto ela executa.
+	 * @param agente Agente a ser desenhado.
+	 */
 	public void setAgente(AgenteBusca agente) {
+		if(this.agente != null)
+			this.agente.setOuvinte(null);
 		this.agente = agente;
+		this.agente.setOuvinte(new AmostradorBusca(QUADRO) {
+			@Override
+			protected void amostrar(AgenteBuscaAbstrato agente) {
+				repaint();
+			}
+		});
 	}
 
 	public int getLarguraBorda() {
@@ -381,6 +371,7 @@ public class LabirintoGrid extends JComponent implements MouseListener, MouseMot
 			this.mouseX = -1;
 			this.mouseY = -1;
 		}
+		this.repaint();
 	}
 	/*
 	 * mouse Clicked
@@ -415,6 +406,7 @@ public class LabirintoGrid extends JComponent implements MouseListener, MouseMot
 				this.agente.setEstadoInicial(pos);
 			}
 		}
+		this.repaint();
 	}
 	
 }